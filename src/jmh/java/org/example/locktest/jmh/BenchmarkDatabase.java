@@ -0,0 +1,39 @@
+package org.example.locktest.jmh;
+
+import org.example.locktest.LockTestApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 벤치마크용 애플리케이션 컨텍스트. 웹 서버 없이 임베디드 H2(MODE=MySQL)에 붙여 띄운다. 데이터는 SettlementFixture 로 넣는다.
+// 회로 차단기와 재시도 예산은 끈다. 경합이 심한 구간에서 빠르게 거절된 요청이 처리량으로 잡히지 않게 하기 위해서다.
+final class BenchmarkDatabase {
+    private BenchmarkDatabase() {
+    }
+
+    static ConfigurableApplicationContext start(String name, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=FALSE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=3000",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.datasource.hikari.maximum-pool-size=32",
+                "spring.sql.init.mode=always",
+                "spring.sql.init.schema-locations=classpath:db/h2-schema.sql",
+                "spring.flyway.enabled=false",
+                "mybatis.mapper-locations=classpath:mapper/*.xml",
+                "mybatis.configuration.map-underscore-to-camel-case=true",
+                "logging.level.root=WARN",
+                "settlement.async.workers=1",
+                "settlement.retry.breaker.enabled=false",
+                "settlement.retry.budget-per-second=" + Integer.MAX_VALUE));
+        properties.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(LockTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.locktest.jmh;
+
+import org.example.locktest.Location;
+import org.example.locktest.money.Money;
+import org.example.locktest.perf.SettlementFixture;
+import org.example.locktest.trip.Expense;
+import org.example.locktest.trip.ExpenseCreateRequestDto;
+import org.example.locktest.trip.ExpenseMapper;
+import org.example.locktest.trip.ExpenseService;
+import org.example.locktest.trip.SettlementMapper;
+import org.example.locktest.trip.SettlementNotes;
+import org.example.locktest.trip.ShareSplitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// 비용 등록 처리량을 참여 회원 수별로 잰다.
+//   jdbcBatch  POST /api/expenses 경로. 단일 행 INSERT 를 BATCH 실행기로 모아 비용 1번, 내역 1번 실행한다.
+//   multiRow   정산 내역을 <foreach> 다중 행 INSERT 한 문장으로 넣는다. 실행 횟수는 같고 동적 SQL 을 매번 만든다.
+//   rowByRow   한 행씩 INSERT 한다. 참여 회원이 N 명이면 N+1 번 실행한다.
+// 임베디드 H2 는 왕복 비용이 없으므로 여기 수치는 애플리케이션 쪽 CPU 비용이다. 네트워크 너머 DB 에서는 rowByRow 에 행마다 왕복이 더해진다.
+//   ./gradlew jmh -PjmhIncludes=ExpenseCreateBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExpenseCreateBenchmark {
+    private static final Money AMOUNT = Money.of(1_000_000);
+
+    @Param({"2", "5", "10", "20", "50"})
+    int members;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private ExpenseMapper expenseMapper;
+    private SettlementMapper settlementMapper;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private ExpenseCreateRequestDto request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("expense");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        SettlementFixture.seed(jdbcTemplate, members);
+        expenseService = context.getBean(ExpenseService.class);
+        expenseMapper = context.getBean(ExpenseMapper.class);
+        settlementMapper = context.getBean(SettlementMapper.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        request = ExpenseCreateRequestDto.builder()
+                .tripId(1L)
+                .memberId(1L)
+                .expenseName("bench")
+                .amount(AMOUNT)
+                .location(Location.SEOUL)
+                .memberIds(LongStream.rangeClosed(1, members).boxed().toList())
+                .build();
+    }
+
+    // 쌓인 행이 인덱스 깊이를 바꾸지 않도록 반복마다 비운다.
+    @TearDown(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM SETTLEMENT_NOTES");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object jdbcBatch() {
+        return expenseService.create(request);
+    }
+
+    @Benchmark
+    public Object multiRow() {
+        return transactionTemplate.execute(status -> {
+            Expense expense = expenseOf(request);
+            expenseMapper.insert(expense);
+            List<SettlementNotes> notes = new ArrayList<>(members);
+            for (Map.Entry<Long, Money> share : sharesOf(request).entrySet()) {
+                notes.add(noteOf(expense, share));
+            }
+            settlementMapper.insertNotes(notes);
+            return expense.getExpenseId();
+        });
+    }
+
+    @Benchmark
+    public Object rowByRow() {
+        return transactionTemplate.execute(status -> {
+            Expense expense = expenseOf(request);
+            expenseMapper.insert(expense);
+            for (Map.Entry<Long, Money> share : sharesOf(request).entrySet()) {
+                settlementMapper.insert(noteOf(expense, share));
+            }
+            return expense.getExpenseId();
+        });
+    }
+
+    private Expense expenseOf(ExpenseCreateRequestDto dto) {
+        return Expense.builder()
+                .tripId(dto.getTripId())
+                .memberId(dto.getMemberId())
+                .expenseName(dto.getExpenseName())
+                .amount(dto.getAmount())
+                .location(dto.getLocation())
+                .unpaidCount(members - 1)
+                .build();
+    }
+
+    private static Map<Long, Money> sharesOf(ExpenseCreateRequestDto dto) {
+        return ShareSplitter.split(dto.getAmount(), dto.getMemberIds(), dto.getMemberId());
+    }
+
+    private static SettlementNotes noteOf(Expense expense, Map.Entry<Long, Money> share) {
+        return SettlementNotes.builder()
+                .expenseId(expense.getExpenseId())
+                .tripId(expense.getTripId())
+                .memberId(share.getKey())
+                .shareAmount(share.getValue())
+                .isPayed(share.getKey().equals(expense.getMemberId()))
+                .received(false)
+                .build();
+    }
+}
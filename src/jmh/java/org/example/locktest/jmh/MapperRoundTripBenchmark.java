@@ -0,0 +1,83 @@
+package org.example.locktest.jmh;
+
+import org.example.locktest.Account.AccountMapper;
+import org.example.locktest.money.Money;
+import org.example.locktest.perf.SettlementFixture;
+import org.example.locktest.perf.ZipfSampler;
+import org.example.locktest.trip.ExpenseMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// 정산 한 건을 이루는 매퍼 호출의 왕복 비용. 락 전략을 바꿀 때 어느 구간이 늘었는지 나눠 보기 위한 것이다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperRoundTripBenchmark {
+    private static final Money AMOUNT = Money.of(1);
+
+    @Param({"256"})
+    int accountPoolSize;
+
+    @Param({"0.0", "1.2"})
+    double skew;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseMapper expenseMapper;
+    private AccountMapper accountMapper;
+    private TransactionTemplate transactionTemplate;
+    private ZipfSampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("mapper");
+        SettlementFixture.seed(context.getBean(JdbcTemplate.class), accountPoolSize);
+        expenseMapper = context.getBean(ExpenseMapper.class);
+        accountMapper = context.getBean(AccountMapper.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        sampler = new ZipfSampler(accountPoolSize, skew);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object searchExpense() {
+        return expenseMapper.searchByExpenseId(sampler.next());
+    }
+
+    @Benchmark
+    public Object searchAccount() {
+        return accountMapper.searchAccountByMemberId(sampler.next());
+    }
+
+    @Benchmark
+    public Object lockAccountForUpdate() {
+        long memberId = sampler.next();
+        return transactionTemplate.execute(status -> accountMapper.searchAccountByMemberIdForUpdate(memberId));
+    }
+
+    @Benchmark
+    public Object transferBalance() {
+        long receiverId = sampler.next();
+        long senderId = sampler.nextOtherThan(receiverId);
+        return transactionTemplate.execute(status -> {
+            accountMapper.transactionBalance(receiverId, senderId, AMOUNT);
+            return receiverId;
+        });
+    }
+}
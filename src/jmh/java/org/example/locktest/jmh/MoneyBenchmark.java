@@ -0,0 +1,85 @@
+package org.example.locktest.jmh;
+
+import org.example.locktest.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 정산 한 건의 금액 검증(금액 > 0, 잔액 - 금액 > 0)과 일괄 정산 합계를 BigDecimal 과 Money 로 비교한다.
+// gc 프로파일러의 gc.alloc.rate.norm 이 호출당 할당 바이트다.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    @Param({"16"})
+    int transfers;
+
+    private BigDecimal[] decimalAmounts;
+    private BigDecimal decimalBalance;
+    private Money[] moneyAmounts;
+    private List<Money> moneyAmountList;
+    private Money moneyBalance;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        decimalAmounts = new BigDecimal[transfers];
+        moneyAmounts = new Money[transfers];
+        for (int i = 0; i < transfers; i++) {
+            long amount = random.nextLong(1_000, 100_000);
+            // DECIMAL(15, 2) 컬럼에서 읽은 값처럼 scale 2 로 둔다.
+            decimalAmounts[i] = BigDecimal.valueOf(amount).setScale(2);
+            moneyAmounts[i] = Money.of(amount);
+        }
+        moneyAmountList = List.of(moneyAmounts);
+        decimalBalance = new BigDecimal("1000000000.00");
+        moneyBalance = Money.of(1_000_000_000L);
+    }
+
+    @Benchmark
+    public int verifyBigDecimal() {
+        int accepted = 0;
+        for (BigDecimal amount : decimalAmounts) {
+            if (amount.compareTo(BigDecimal.ZERO) > 0 && decimalBalance.subtract(amount).compareTo(BigDecimal.ZERO) > 0) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    public int verifyMoney() {
+        int accepted = 0;
+        for (Money amount : moneyAmounts) {
+            if (amount.isPositive() && moneyBalance.isGreaterThan(amount)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal received = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalAmounts) {
+            received = received.add(amount);
+        }
+        return received;
+    }
+
+    @Benchmark
+    public Money sumMoney() {
+        return Money.sum(moneyAmountList);
+    }
+}
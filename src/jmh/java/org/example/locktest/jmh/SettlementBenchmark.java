@@ -0,0 +1,104 @@
+package org.example.locktest.jmh;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.money.Money;
+import org.example.locktest.perf.SettlementFixture;
+import org.example.locktest.perf.ZipfSampler;
+import org.example.locktest.trip.SettlementRequestDto;
+import org.example.locktest.trip.SettlementService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// settle(비관적 락)와 settle2(낙관적 락)의 처리량 비교.
+// 수취인(비용)은 skew 로 쏠림을 주고, 송금인은 계좌 풀에서 균등하게 고른다. 스레드 수는 -PjmhThreads 로 바꾼다.
+// 처리량에는 거절된 요청도 들어가므로, 결과의 settled / rejected 보조 지표로 성공한 정산만 따로 본다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SettlementBenchmark {
+    private static final Money AMOUNT = Money.of(1);
+
+    @Param({"16", "256"})
+    int accountPoolSize;
+
+    @Param({"0.0", "1.2"})
+    double skew;
+
+    private ConfigurableApplicationContext context;
+    private SettlementService settlementService;
+    private JdbcTemplate jdbcTemplate;
+    private ZipfSampler sampler;
+
+    // 스레드별 시도 결과. 업무 예외(이미 지불, 잔액 부족, 재시도 한도 초과)는 rejected 로 센다.
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long settled;
+        public long rejected;
+    }
+
+    // 다음 요청. 고른 정산 내역을 미지불로 되돌리는 시간은 측정에서 뺀다.
+    @State(Scope.Thread)
+    public static class NextRequest {
+        SettlementRequestDto dto;
+
+        @Setup(Level.Invocation)
+        public void next(SettlementBenchmark benchmark) {
+            long expenseId = benchmark.sampler.next();
+            long senderId = benchmark.sampler.nextOtherThan(expenseId);
+            SettlementFixture.resetNote(benchmark.jdbcTemplate, expenseId, senderId);
+            dto = new SettlementRequestDto(senderId, expenseId, AMOUNT);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start("settlement");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        SettlementFixture.seed(jdbcTemplate, accountPoolSize);
+        settlementService = context.getBean(SettlementService.class);
+        sampler = new ZipfSampler(accountPoolSize, skew);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void settlePessimistic(NextRequest request, Outcomes outcomes, Blackhole blackhole) {
+        try {
+            blackhole.consume(settlementService.settle(request.dto));
+            outcomes.settled++;
+        } catch (BusinessException e) {
+            // 예외로 반복을 끊지 않고 결과로만 센다.
+            outcomes.rejected++;
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void settleOptimistic(NextRequest request, Outcomes outcomes, Blackhole blackhole) {
+        try {
+            blackhole.consume(settlementService.settle2(request.dto));
+            outcomes.settled++;
+        } catch (BusinessException e) {
+            outcomes.rejected++;
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.example.locktest.loadtest;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.locktest.Bank;
+import org.example.locktest.Location;
+import org.example.locktest.LockTestApplication;
+import org.example.locktest.Account.Account;
+import org.example.locktest.Account.AccountMapper;
+import org.example.locktest.money.Money;
+import org.example.locktest.perf.ZipfSampler;
+import org.example.locktest.trip.Expense;
+import org.example.locktest.trip.ExpenseMapper;
+import org.example.locktest.trip.SettlementMapper;
+import org.example.locktest.trip.SettlementNotes;
+import org.example.locktest.trip.ShareSplitter;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// 대량 데이터 생성기. 계좌, 여행별 비용, 비용별 정산 내역을 MyBatis BATCH 실행기로 적재한다.
+// 문장은 단일 행 INSERT 하나로 고정하고 batch-rows 행마다 JDBC 배치로 보낸다. <foreach> 다중 행 INSERT 는 행 수마다
+// 다른 SQL 이 되어 매번 파싱되고, 파라미터 수가 드라이버 한도에 걸릴 수 있다.
+//   ./gradlew generateDataset -PdatasetArgs="--accounts=1000000 --trips=100000 --expenses-per-trip=10 --members-per-expense=8"
+// 위 설정이면 계좌 100만 + 비용 100만 + 정산 내역 800만으로 1,000만 행이다.
+// 여행마다 참여 회원 묶음을 Zipf(skew) 로 골라 인기 계좌가 여러 여행에 몰리게 하고, 비용마다 묶음 안에서 결제자를 고른다.
+// 결제자 몫의 정산 내역은 지불 완료로 넣고 나머지 인원 수를 unpaid_count 로 둔다. 같은 seed 면 같은 데이터가 나온다.
+// --embedded=true(기본) 이면 H2 파일 DB(--h2-file)에, false 면 --spring.datasource.* 로 지정한 DB 에 기존 id 뒤로 이어서 적재한다.
+// MySQL 에서는 settlement-defaults 의 rewriteBatchedStatements=true 로 배치가 다중 행 INSERT 로 묶여서 나간다.
+public final class DatasetGenerator {
+    private static final Location[] LOCATIONS = Location.values();
+
+    private final DatasetOptions options;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SqlSessionTemplate batchSession;
+    private final AccountMapper accountMapper;
+    private final ExpenseMapper expenseMapper;
+    private final SettlementMapper settlementMapper;
+    private final ZipfSampler memberSampler;
+    private final SplittableRandom random;
+
+    private DatasetGenerator(ConfigurableApplicationContext context, DatasetOptions options) {
+        this.options = options;
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        // 트랜잭션에 묶인 BATCH 세션은 같은 SQL 을 모아 두었다가 flush 나 커밋 때 JDBC 배치로 보낸다.
+        this.batchSession = new SqlSessionTemplate(context.getBean(SqlSessionFactory.class), ExecutorType.BATCH);
+        this.accountMapper = batchSession.getMapper(AccountMapper.class);
+        this.expenseMapper = batchSession.getMapper(ExpenseMapper.class);
+        this.settlementMapper = batchSession.getMapper(SettlementMapper.class);
+        this.memberSampler = new ZipfSampler(options.accounts(), options.skew());
+        this.random = new SplittableRandom(options.seed());
+    }
+
+    public static void main(String[] args) {
+        DatasetOptions options = DatasetOptions.parse(args);
+        try (ConfigurableApplicationContext context = start(options)) {
+            new DatasetGenerator(context, options).generate();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(DatasetOptions options) {
+        List<String> properties = new ArrayList<>();
+        properties.add("logging.level.root=WARN");
+        // 구문마다 타이머를 다는 프로파일러는 적재 속도만 깎는다.
+        properties.add("settlement.sql-profiling.enabled=false");
+        properties.add("mybatis.mapper-locations=classpath:mapper/*.xml");
+        properties.add("mybatis.configuration.map-underscore-to-camel-case=true");
+        if (options.embedded()) {
+            properties.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:file:" + options.h2File().toAbsolutePath() + ";MODE=MySQL;DATABASE_TO_LOWER=FALSE",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.sql.init.mode=always",
+                    "spring.sql.init.schema-locations=classpath:db/h2-schema.sql",
+                    "spring.flyway.enabled=false"));
+        }
+        properties.addAll(options.springProperties());
+        return new SpringApplicationBuilder(LockTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    private void generate() {
+        long firstAccountId = nextId("SELECT MAX(account_id) FROM ACCOUNT");
+        long firstMemberId = nextId("SELECT MAX(member_id) FROM ACCOUNT");
+        long firstExpenseId = nextId("SELECT MAX(expense_id) FROM EXPENSE");
+        long firstTripId = nextId("SELECT MAX(trip_id) FROM EXPENSE");
+        System.out.printf("dataset: %,d rows planned (accounts %,d, trips %,d x %d expenses x %d members), members from %d, expenses from %d%n",
+                options.totalRows(), options.accounts(), options.trips(), options.expensesPerTrip(), options.membersPerExpense(),
+                firstMemberId, firstExpenseId);
+
+        long start = System.nanoTime();
+        loadAccounts(firstAccountId, firstMemberId);
+        report("accounts", options.accounts(), start);
+
+        long tripStart = System.nanoTime();
+        long notes = loadTrips(firstMemberId, firstExpenseId, firstTripId);
+        long expenses = (long) options.trips() * options.expensesPerTrip();
+        report("expenses+notes", expenses + notes, tripStart);
+
+        restartIdentities(firstAccountId + options.accounts(), firstExpenseId + expenses);
+        report("total", options.accounts() + expenses + notes, start);
+    }
+
+    private void loadAccounts(long firstAccountId, long firstMemberId) {
+        for (int from = 0; from < options.accounts(); from += options.commitRows()) {
+            int to = Math.min(options.accounts(), from + options.commitRows());
+            int offset = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Account> accounts = new ArrayList<>(to - offset);
+                for (int i = offset; i < to; i++) {
+                    long memberId = firstMemberId + i;
+                    accounts.add(Account.builder()
+                            .accountId(firstAccountId + i)
+                            .memberId(memberId)
+                            .accountNumber("DS-" + memberId)
+                            .accountPassword("0000")
+                            .bank(Bank.KB)
+                            .balance(options.balance())
+                            .build());
+                }
+                insertInBatches(accounts, accountMapper::insertAccount);
+            });
+        }
+    }
+
+    // 한 트랜잭션에 commit-rows 안팎의 행이 들어가도록 여행 단위로 나눠 커밋한다.
+    // 행은 트랜잭션 단위로 모아 두었다가 테이블별로 몰아서 넣는다. 두 테이블의 INSERT 가 번갈아 나가면 BATCH 실행기가 배치를 끊고 문장을 새로 준비한다.
+    private long loadTrips(long firstMemberId, long firstExpenseId, long firstTripId) {
+        int rowsPerTrip = options.expensesPerTrip() * (1 + options.membersPerExpense());
+        int tripsPerCommit = Math.max(1, options.commitRows() / rowsPerTrip);
+        long[] notes = new long[1];
+        for (int from = 0; from < options.trips(); from += tripsPerCommit) {
+            int to = Math.min(options.trips(), from + tripsPerCommit);
+            int offset = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Expense> expenses = new ArrayList<>();
+                List<SettlementNotes> tripNotes = new ArrayList<>();
+                for (int trip = offset; trip < to; trip++) {
+                    long tripId = firstTripId + trip;
+                    List<Long> members = pickMembers(firstMemberId);
+                    for (int e = 0; e < options.expensesPerTrip(); e++) {
+                        long expenseId = firstExpenseId + (long) trip * options.expensesPerTrip() + e;
+                        Long payerId = members.get(random.nextInt(members.size()));
+                        // 100원 단위 1,000 ~ 300,000원. 분담액은 POST /api/expenses 와 같은 규칙으로 나눈다.
+                        Money amount = Money.of(100L * random.nextLong(10, 3_001));
+                        expenses.add(Expense.builder()
+                                .expenseId(expenseId)
+                                .tripId(tripId)
+                                .memberId(payerId)
+                                .expenseName("dataset-" + expenseId)
+                                .amount(amount)
+                                .location(LOCATIONS[random.nextInt(LOCATIONS.length)])
+                                .settlementCompleted(false)
+                                .unpaidCount(members.size() - 1)
+                                .build());
+                        for (Map.Entry<Long, Money> share : ShareSplitter.split(amount, members, payerId).entrySet()) {
+                            tripNotes.add(SettlementNotes.builder()
+                                    .expenseId(expenseId)
+                                    .tripId(tripId)
+                                    .memberId(share.getKey())
+                                    .shareAmount(share.getValue())
+                                    .isPayed(share.getKey().equals(payerId))
+                                    .received(false)
+                                    .build());
+                        }
+                        notes[0] += members.size();
+                    }
+                }
+                insertInBatches(expenses, expenseMapper::insertWithId);
+                insertInBatches(tripNotes, settlementMapper::insert);
+            });
+        }
+        return notes[0];
+    }
+
+    // 여행 참여 회원 묶음. Zipf 로 뽑아 인기 계좌가 자주 끼게 하되, 중복이 계속 나오면 나머지는 균등하게 채운다.
+    private List<Long> pickMembers(long firstMemberId) {
+        int size = options.membersPerExpense();
+        Set<Long> members = new LinkedHashSet<>();
+        for (int attempt = 0; members.size() < size && attempt < size * 20; attempt++) {
+            members.add(firstMemberId - 1 + memberSampler.next(random));
+        }
+        while (members.size() < size) {
+            members.add(firstMemberId + random.nextLong(options.accounts()));
+        }
+        return new ArrayList<>(members);
+    }
+
+    private long nextId(String maxQuery) {
+        Long max = jdbcTemplate.queryForObject(maxQuery, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    // H2 는 id 를 직접 넣어도 자동 증가 값을 옮기지 않는다. 이후 애플리케이션의 INSERT 와 겹치지 않게 맞춘다.
+    private void restartIdentities(long nextAccountId, long nextExpenseId) {
+        String product = jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(product)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE ACCOUNT ALTER COLUMN account_id RESTART WITH " + nextAccountId);
+        jdbcTemplate.execute("ALTER TABLE EXPENSE ALTER COLUMN expense_id RESTART WITH " + nextExpenseId);
+    }
+
+    private static void report(String name, long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.printf("%s: %,d rows in %.1f s (%,.0f rows/s)%n", name, rows, seconds, rows / seconds);
+    }
+
+    // BATCH 세션은 같은 문장을 한 PreparedStatement 에 addBatch 로 쌓는다. batch-rows 행마다 보내서 드라이버 메모리를 묶어 둔다.
+    private <T> void insertInBatches(List<T> rows, Consumer<T> insert) {
+        for (int i = 0; i < rows.size(); i++) {
+            insert.accept(rows.get(i));
+            if ((i + 1) % options.batchRows() == 0) {
+                batchSession.flushStatements();
+            }
+        }
+        batchSession.flushStatements();
+    }
+}
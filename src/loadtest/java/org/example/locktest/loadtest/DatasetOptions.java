@@ -0,0 +1,69 @@
+package org.example.locktest.loadtest;
+
+import org.example.locktest.money.Money;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// DatasetGenerator 인자. 형식은 LoadTestOptions 와 같은 --key=value 이고 --spring.* 인자는 애플리케이션 컨텍스트에 넘긴다.
+record DatasetOptions(
+        int accounts,
+        int trips,
+        int expensesPerTrip,
+        int membersPerExpense,
+        double skew,
+        Money balance,
+        int batchRows,
+        int commitRows,
+        long seed,
+        boolean embedded,
+        Path h2File,
+        List<String> springProperties) {
+
+    static DatasetOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> springProperties = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("인자는 --key=value 형식이어야 합니다: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (key.startsWith("spring.") || key.startsWith("settlement.") || key.startsWith("mybatis.")) {
+                springProperties.add(key + "=" + value);
+            } else {
+                values.put(key, value);
+            }
+        }
+        DatasetOptions options = new DatasetOptions(
+                Integer.parseInt(values.getOrDefault("accounts", "10000")),
+                Integer.parseInt(values.getOrDefault("trips", "1000")),
+                Integer.parseInt(values.getOrDefault("expenses-per-trip", "10")),
+                Integer.parseInt(values.getOrDefault("members-per-expense", "4")),
+                Double.parseDouble(values.getOrDefault("skew", "0.99")),
+                Money.parse(values.getOrDefault("balance", "1000000000")),
+                Integer.parseInt(values.getOrDefault("batch-rows", "500")),
+                Integer.parseInt(values.getOrDefault("commit-rows", "50000")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Boolean.parseBoolean(values.getOrDefault("embedded", "true")),
+                Path.of(values.getOrDefault("h2-file", "build/dataset/locktest")),
+                springProperties);
+        if (options.accounts < 2 || options.trips < 0 || options.expensesPerTrip <= 0) {
+            throw new IllegalArgumentException("accounts >= 2, trips >= 0, expenses-per-trip > 0 이어야 합니다.");
+        }
+        if (options.membersPerExpense < 2 || options.membersPerExpense > options.accounts) {
+            throw new IllegalArgumentException("members-per-expense 는 2 이상 accounts 이하여야 합니다.");
+        }
+        if (options.batchRows <= 0 || options.commitRows < options.batchRows) {
+            throw new IllegalArgumentException("batch-rows > 0, commit-rows >= batch-rows 이어야 합니다.");
+        }
+        return options;
+    }
+
+    long totalRows() {
+        return accounts + (long) trips * expensesPerTrip * (1 + membersPerExpense);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.locktest.loadtest;
+
+import org.example.locktest.trip.SettlementRequestDto;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// 떠 있는 서버의 정산 엔드포인트로 요청을 보낸다. strategy 는 /api/ 뒤의 경로(settlement, settlement2, settlement/auto ...)다.
+final class HttpSettlementDriver implements SettlementDriver {
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI uri;
+
+    HttpSettlementDriver(String baseUrl, String strategy) {
+        String path = switch (strategy) {
+            case "settle" -> "settlement";
+            case "settle2" -> "settlement2";
+            case "settle3" -> "settlement3";
+            case "settle4" -> "settlement4";
+            case "ledger" -> "settlement/ledger";
+            case "auto" -> "settlement/auto";
+            default -> strategy;
+        };
+        this.uri = URI.create(baseUrl + "/api/" + path);
+    }
+
+    @Override
+    public String execute(SettlementRequestDto dto) {
+        String body = "{\"memberId\":" + dto.getMemberId()
+                + ",\"expenseId\":" + dto.getExpenseId()
+                + ",\"amount\":" + dto.getAmount().minorUnits() + "}";
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status / 100 == 2 ? OK : "http:" + status;
+        } catch (IOException e) {
+            return "error:" + e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "error:interrupted";
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
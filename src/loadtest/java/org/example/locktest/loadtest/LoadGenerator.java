@@ -0,0 +1,144 @@
+package org.example.locktest.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.example.locktest.perf.ZipfSampler;
+import org.example.locktest.trip.SettlementRequestDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// 한 구간(워밍업 또는 측정)의 요청을 만들어 보낸다. 스레드마다 히스토그램을 따로 두고 끝나면 합친다.
+// 지연은 마이크로초 단위로 기록한다.
+final class LoadGenerator {
+    private final LoadTestOptions options;
+    private final SettlementDriver driver;
+    private final ZipfSampler sampler;
+
+    LoadGenerator(LoadTestOptions options, SettlementDriver driver, ZipfSampler sampler) {
+        this.options = options;
+        this.driver = driver;
+        this.sampler = sampler;
+    }
+
+    PhaseResult run(int seconds) throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long intervalNanos = options.mode() == LoadTestOptions.Mode.OPEN ? (long) (1e9 / options.ratePerSecond()) : 0;
+        AtomicLong sequence = new AtomicLong();
+
+        List<Worker> workers = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(options.threads());
+        for (int i = 0; i < options.threads(); i++) {
+            Worker worker = new Worker(start, end, intervalNanos, sequence, done);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "loadtest-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        Histogram response = new Histogram(3);
+        Histogram service = new Histogram(3);
+        Map<String, Long> outcomes = new HashMap<>();
+        for (Worker worker : workers) {
+            response.add(worker.response);
+            service.add(worker.service);
+            worker.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Long::sum));
+        }
+        return new PhaseResult(response, service, outcomes, elapsed);
+    }
+
+    private SettlementRequestDto nextRequest() {
+        long expenseId = sampler.next();
+        return new SettlementRequestDto(sampler.nextOtherThan(expenseId), expenseId, options.amount());
+    }
+
+    private final class Worker implements Runnable {
+        private final long start;
+        private final long end;
+        private final long intervalNanos;
+        private final AtomicLong sequence;
+        private final CountDownLatch done;
+        private final Histogram response = new Histogram(3);
+        private final Histogram service = new Histogram(3);
+        private final Map<String, Long> outcomes = new HashMap<>();
+
+        private Worker(long start, long end, long intervalNanos, AtomicLong sequence, CountDownLatch done) {
+            this.start = start;
+            this.end = end;
+            this.intervalNanos = intervalNanos;
+            this.sequence = sequence;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (intervalNanos > 0) {
+                    runOpen();
+                } else {
+                    runClosed();
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        // 요청마다 예정된 전송 시각이 있다. 앞선 요청이 늦어 밀리면 밀린 시간까지 응답 지연에 들어간다(coordinated omission 보정).
+        private void runOpen() {
+            while (true) {
+                long intended = start + sequence.getAndIncrement() * intervalNanos;
+                if (intended >= end) {
+                    return;
+                }
+                SettlementRequestDto request = nextRequest();
+                driver.prepare(request);
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long sent = System.nanoTime();
+                String outcome = driver.execute(request);
+                long finished = System.nanoTime();
+                response.recordValue((finished - intended) / 1_000);
+                service.recordValue((finished - sent) / 1_000);
+                outcomes.merge(outcome, 1L, Long::sum);
+            }
+        }
+
+        private void runClosed() {
+            long wait = start - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            while (System.nanoTime() < end) {
+                SettlementRequestDto request = nextRequest();
+                driver.prepare(request);
+                long sent = System.nanoTime();
+                String outcome = driver.execute(request);
+                long latency = (System.nanoTime() - sent) / 1_000;
+                response.recordValue(latency);
+                service.recordValue(latency);
+                outcomes.merge(outcome, 1L, Long::sum);
+            }
+        }
+    }
+
+    // response: 예정 시각 기준 지연, service: 실제 전송 시각 기준 지연. closed 모드에서는 둘이 같다.
+    record PhaseResult(Histogram response, Histogram service, Map<String, Long> outcomes, long elapsedNanos) {
+        long requests() {
+            return service.getTotalCount();
+        }
+
+        double throughput() {
+            return requests() * 1e9 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.locktest.loadtest;
+
+import org.example.locktest.money.Money;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// --key=value 형식 인자. --spring.* 인자는 그대로 애플리케이션 컨텍스트에 넘긴다.
+record LoadTestOptions(
+        Mode mode,
+        Target target,
+        String strategy,
+        String baseUrl,
+        int threads,
+        double ratePerSecond,
+        int warmupSeconds,
+        int durationSeconds,
+        int accountPoolSize,
+        double skew,
+        Money amount,
+        boolean embedded,
+        Path outputDir,
+        String label,
+        List<String> springProperties) {
+
+    enum Mode {
+        // 고정된 도착률로 요청을 보낸다. 지연은 예정된 전송 시각부터 잰다.
+        OPEN,
+        // 각 스레드가 응답을 받은 뒤 바로 다음 요청을 보낸다.
+        CLOSED
+    }
+
+    enum Target {
+        SERVICE,
+        HTTP
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> springProperties = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("인자는 --key=value 형식이어야 합니다: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (key.startsWith("spring.") || key.startsWith("settlement.") || key.startsWith("mybatis.")) {
+                springProperties.add(key + "=" + value);
+            } else {
+                values.put(key, value);
+            }
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Mode.valueOf(values.getOrDefault("mode", "closed").toUpperCase()),
+                Target.valueOf(values.getOrDefault("target", "service").toUpperCase()),
+                values.getOrDefault("strategy", "settle"),
+                values.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(values.getOrDefault("threads", "8")),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Integer.parseInt(values.getOrDefault("warmup-seconds", "10")),
+                Integer.parseInt(values.getOrDefault("duration-seconds", "30")),
+                Integer.parseInt(values.getOrDefault("accounts", "64")),
+                Double.parseDouble(values.getOrDefault("skew", "0.99")),
+                Money.parse(values.getOrDefault("amount", "1")),
+                Boolean.parseBoolean(values.getOrDefault("embedded", "true")),
+                Path.of(values.getOrDefault("output", "build/loadtest")),
+                values.getOrDefault("label", ""),
+                springProperties);
+        if (options.threads <= 0 || options.accountPoolSize < 2 || options.durationSeconds <= 0) {
+            throw new IllegalArgumentException("threads > 0, accounts >= 2, duration-seconds > 0 이어야 합니다.");
+        }
+        if (options.mode == Mode.OPEN && options.ratePerSecond <= 0) {
+            throw new IllegalArgumentException("open 모드에는 rate > 0 이 필요합니다.");
+        }
+        return options;
+    }
+}
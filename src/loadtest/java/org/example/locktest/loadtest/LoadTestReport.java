@@ -0,0 +1,85 @@
+package org.example.locktest.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 한 번의 측정 결과. JSON 과 CSV 로 그대로 내보낸다. 지연 값은 밀리초.
+record LoadTestReport(
+        String label,
+        LocalDateTime startedAt,
+        String mode,
+        String target,
+        String strategy,
+        int threads,
+        double targetRate,
+        int accounts,
+        double skew,
+        int warmupSeconds,
+        int durationSeconds,
+        long requests,
+        double throughput,
+        Map<String, Long> outcomes,
+        Latency response,
+        Latency service,
+        double expectedIntervalMillis) {
+
+    record Latency(double mean, double p50, double p90, double p99, double p999, double p9999, double max) {
+        static Latency of(Histogram histogram) {
+            return new Latency(
+                    histogram.getMean() / 1_000.0,
+                    histogram.getValueAtPercentile(50) / 1_000.0,
+                    histogram.getValueAtPercentile(90) / 1_000.0,
+                    histogram.getValueAtPercentile(99) / 1_000.0,
+                    histogram.getValueAtPercentile(99.9) / 1_000.0,
+                    histogram.getValueAtPercentile(99.99) / 1_000.0,
+                    histogram.getMaxValue() / 1_000.0);
+        }
+    }
+
+    static LoadTestReport of(LoadTestOptions options, LocalDateTime startedAt, LoadGenerator.PhaseResult result,
+                             Histogram correctedResponse, double expectedIntervalMillis) {
+        return new LoadTestReport(
+                options.label(),
+                startedAt,
+                options.mode().name().toLowerCase(),
+                options.target().name().toLowerCase(),
+                options.strategy(),
+                options.threads(),
+                options.mode() == LoadTestOptions.Mode.OPEN ? options.ratePerSecond() : 0,
+                options.accountPoolSize(),
+                options.skew(),
+                options.warmupSeconds(),
+                options.durationSeconds(),
+                result.requests(),
+                result.throughput(),
+                new TreeMap<>(result.outcomes()),
+                Latency.of(correctedResponse),
+                Latency.of(result.service()),
+                expectedIntervalMillis);
+    }
+
+    static String csvHeader() {
+        return "label,started_at,mode,target,strategy,threads,target_rate,accounts,skew,warmup_s,duration_s,"
+                + "requests,throughput,ok,failed,"
+                + "resp_mean_ms,resp_p50_ms,resp_p90_ms,resp_p99_ms,resp_p999_ms,resp_p9999_ms,resp_max_ms,"
+                + "svc_mean_ms,svc_p50_ms,svc_p90_ms,svc_p99_ms,svc_p999_ms,svc_p9999_ms,svc_max_ms";
+    }
+
+    String csvRow() {
+        long ok = outcomes.getOrDefault(SettlementDriver.OK, 0L);
+        return String.join(",",
+                label, startedAt.toString(), mode, target, strategy,
+                String.valueOf(threads), String.valueOf(targetRate), String.valueOf(accounts), String.valueOf(skew),
+                String.valueOf(warmupSeconds), String.valueOf(durationSeconds),
+                String.valueOf(requests), String.format("%.1f", throughput), String.valueOf(ok), String.valueOf(requests - ok),
+                csv(response), csv(service));
+    }
+
+    private static String csv(Latency latency) {
+        return String.format("%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                latency.mean(), latency.p50(), latency.p90(), latency.p99(), latency.p999(), latency.p9999(), latency.max());
+    }
+}
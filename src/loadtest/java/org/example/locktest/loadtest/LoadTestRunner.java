@@ -0,0 +1,130 @@
+package org.example.locktest.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+import org.example.locktest.LockTestApplication;
+import org.example.locktest.perf.SettlementFixture;
+import org.example.locktest.perf.ZipfSampler;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// 정산 부하 테스트 진입점.
+//   ./gradlew loadTest -PloadTestArgs="--mode=open --rate=500 --threads=64 --strategy=settle2 --skew=1.1"
+//   ./gradlew loadTest -PloadTestArgs="--target=http --base-url=http://localhost:8080 --strategy=auto"
+// 워크로드는 expense_id 1..accounts 를 Zipf 분포로 고르고(비용 i 의 결제자는 회원 i), 송금인은 나머지 회원에서 균등하게 고른다.
+// --embedded=true(기본) 이면 H2 에 그 데이터를 만들어 쓰고, false 면 --spring.datasource.* 로 지정한 DB 에 같은 데이터가 있어야 한다.
+// 임베디드 H2 에서는 요청을 보내기 전에 고른 정산 내역을 미지불로 되돌려, 이미 지불한 내역의 거절만 재는 일이 없게 한다.
+public final class LoadTestRunner {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ZipfSampler sampler = new ZipfSampler(options.accountPoolSize(), options.skew());
+
+        try (SettlementDriver driver = createDriver(options)) {
+            LoadGenerator generator = new LoadGenerator(options, driver, sampler);
+            double expectedIntervalMillis = 0;
+            if (options.warmupSeconds() > 0) {
+                LoadGenerator.PhaseResult warmup = generator.run(options.warmupSeconds());
+                expectedIntervalMillis = warmup.service().getMean() / 1_000.0;
+                System.out.printf("warm-up: %d requests, %.1f req/s, mean %.3f ms%n",
+                        warmup.requests(), warmup.throughput(), expectedIntervalMillis);
+            }
+
+            LocalDateTime startedAt = LocalDateTime.now();
+            LoadGenerator.PhaseResult result = generator.run(options.durationSeconds());
+            if (expectedIntervalMillis == 0) {
+                expectedIntervalMillis = result.service().getMean() / 1_000.0;
+            }
+            Histogram response = correctedResponse(options, result, expectedIntervalMillis);
+            LoadTestReport report = LoadTestReport.of(options, startedAt, result, response, expectedIntervalMillis);
+            write(options.outputDir(), report, response, result.service());
+            System.out.printf("measured: %d requests, %.1f req/s, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms, outcomes %s%n",
+                    report.requests(), report.throughput(), report.response().p50(), report.response().p99(),
+                    report.response().p999(), report.response().max(), report.outcomes());
+        }
+    }
+
+    // open 모드는 예정 시각 기준으로 이미 보정돼 있다. closed 모드는 요청 간 기대 간격(워밍업 평균 지연)으로
+    // 빠진 표본을 채워 넣는 HdrHistogram 사후 보정을 쓴다.
+    private static Histogram correctedResponse(LoadTestOptions options, LoadGenerator.PhaseResult result, double expectedIntervalMillis) {
+        if (options.mode() == LoadTestOptions.Mode.OPEN) {
+            return result.response();
+        }
+        long expectedIntervalMicros = Math.max(1, Math.round(expectedIntervalMillis * 1_000));
+        return result.response().copyCorrectedForCoordinatedOmission(expectedIntervalMicros);
+    }
+
+    private static SettlementDriver createDriver(LoadTestOptions options) {
+        if (options.target() == LoadTestOptions.Target.HTTP) {
+            return new HttpSettlementDriver(options.baseUrl(), options.strategy());
+        }
+        List<String> properties = new ArrayList<>();
+        properties.add("logging.level.root=WARN");
+        if (options.embedded()) {
+            properties.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=FALSE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=3000",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.datasource.hikari.maximum-pool-size=" + Math.max(10, options.threads()),
+                    "spring.sql.init.mode=always",
+                    "spring.sql.init.schema-locations=classpath:db/h2-schema.sql",
+                    "spring.flyway.enabled=false",
+                    "mybatis.mapper-locations=classpath:mapper/*.xml",
+                    "mybatis.configuration.map-underscore-to-camel-case=true"));
+        }
+        properties.addAll(options.springProperties());
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LockTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        if (options.embedded()) {
+            SettlementFixture.seed(context.getBean(JdbcTemplate.class), options.accountPoolSize());
+        }
+        return new ServiceSettlementDriver(context, options.strategy(), options.embedded());
+    }
+
+    // 실행마다 JSON 과 HdrHistogram 분포(.hgrm)를 남기고, runs.csv 에는 한 줄씩 누적해 실행 간 비교에 쓴다.
+    private static void write(Path outputDir, LoadTestReport report, Histogram response, Histogram service) throws IOException {
+        Files.createDirectories(outputDir);
+        String name = (report.label().isBlank() ? "" : report.label() + "-") + report.strategy() + "-" + report.startedAt().format(FILE_TIME);
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(outputDir.resolve(name + ".json").toFile(), report);
+
+        try (PrintStream out = new PrintStream(outputDir.resolve(name + "-response.hgrm").toFile())) {
+            response.outputPercentileDistribution(out, 1_000.0);
+        }
+        try (PrintStream out = new PrintStream(outputDir.resolve(name + "-service.hgrm").toFile())) {
+            service.outputPercentileDistribution(out, 1_000.0);
+        }
+
+        Path csv = outputDir.resolve("runs.csv");
+        if (Files.notExists(csv)) {
+            Files.writeString(csv, LoadTestReport.csvHeader() + System.lineSeparator());
+        }
+        Files.writeString(csv, report.csvRow() + System.lineSeparator(), StandardOpenOption.APPEND);
+        System.out.println("report: " + outputDir.resolve(name + ".json").toAbsolutePath());
+    }
+}
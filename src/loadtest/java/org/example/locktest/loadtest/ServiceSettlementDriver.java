@@ -0,0 +1,58 @@
+package org.example.locktest.loadtest;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.perf.SettlementFixture;
+import org.example.locktest.trip.AdaptiveSettlementRouter;
+import org.example.locktest.trip.SettlementRequestDto;
+import org.example.locktest.trip.SettlementService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.function.Consumer;
+
+// 같은 프로세스에 띄운 애플리케이션 컨텍스트의 서비스를 직접 호출한다. HTTP 직렬화 비용 없이 락 전략만 비교할 때 쓴다.
+final class ServiceSettlementDriver implements SettlementDriver {
+    private final ConfigurableApplicationContext context;
+    private final Consumer<SettlementRequestDto> call;
+    private final JdbcTemplate fixtureJdbcTemplate;
+
+    // resetNotes 는 SettlementFixture 로 데이터를 넣은 임베디드 DB 에서만 켠다.
+    ServiceSettlementDriver(ConfigurableApplicationContext context, String strategy, boolean resetNotes) {
+        this.context = context;
+        this.fixtureJdbcTemplate = resetNotes ? context.getBean(JdbcTemplate.class) : null;
+        SettlementService service = context.getBean(SettlementService.class);
+        this.call = switch (strategy) {
+            case "settle" -> service::settle;
+            case "settle2" -> service::settle2;
+            case "settle3" -> service::settle3;
+            case "settle4" -> service::settle4;
+            case "ledger" -> service::settleLedger;
+            case "auto" -> context.getBean(AdaptiveSettlementRouter.class)::settle;
+            default -> throw new IllegalArgumentException("지원하지 않는 정산 전략입니다: " + strategy);
+        };
+    }
+
+    @Override
+    public void prepare(SettlementRequestDto dto) {
+        if (fixtureJdbcTemplate != null) {
+            SettlementFixture.resetNote(fixtureJdbcTemplate, dto.getExpenseId(), dto.getMemberId());
+        }
+    }
+
+    @Override
+    public String execute(SettlementRequestDto dto) {
+        try {
+            call.accept(dto);
+            return OK;
+        } catch (BusinessException e) {
+            return e.getStatusCode().name();
+        } catch (RuntimeException e) {
+            return "error:" + e.getClass().getSimpleName();
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.locktest.loadtest;
+
+import org.example.locktest.trip.SettlementRequestDto;
+
+// 정산 요청 한 건을 보내고 결과 분류(ok, 상태 코드 이름, error:예외) 를 돌려준다. 여러 스레드가 함께 호출한다.
+interface SettlementDriver extends AutoCloseable {
+    String OK = "ok";
+
+    String execute(SettlementRequestDto dto);
+
+    // 측정 구간 밖에서 요청을 보낼 수 있는 상태로 만든다.
+    default void prepare(SettlementRequestDto dto) {
+    }
+
+    @Override
+    default void close() {
+    }
+}
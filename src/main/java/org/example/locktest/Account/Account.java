@@ -2,8 +2,8 @@ package org.example.locktest.Account;
 
 import lombok.*;
 import org.example.locktest.Bank;
+import org.example.locktest.money.Money;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Builder
@@ -17,7 +17,7 @@ public class Account {
     private String accountNumber;
     private String accountPassword;
     private Bank bank;
-    private BigDecimal balance;
+    private Money balance;
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
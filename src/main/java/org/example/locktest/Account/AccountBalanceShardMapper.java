@@ -0,0 +1,18 @@
+package org.example.locktest.Account;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.locktest.money.Money;
+
+import java.util.List;
+
+@Mapper
+public interface AccountBalanceShardMapper {
+    void credit(@Param("memberId") Long memberId, @Param("slot") int slot, @Param("amount") Money amount);
+
+    Money sumByMemberId(@Param("memberId") Long memberId);
+
+    List<Money> searchBalancesByMemberIdForUpdate(@Param("memberId") Long memberId);
+
+    void resetByMemberId(@Param("memberId") Long memberId);
+}
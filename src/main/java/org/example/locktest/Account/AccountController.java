@@ -0,0 +1,34 @@
+package org.example.locktest.Account;
+
+import lombok.RequiredArgsConstructor;
+import org.example.locktest.ApiResponse;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.datasource.ReplicaRead;
+import org.example.locktest.money.Money;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/accounts")
+@RequiredArgsConstructor
+public class AccountController {
+    private final ShardedBalanceService shardedBalanceService;
+    private final LedgerBalanceService ledgerBalanceService;
+
+    // 분할 잔액 계좌는 본 계좌 잔액 + 샤드 잔액 합계를, 원장 모드에서는 아직 합치지 않은 분개까지 더해 돌려준다.
+    // 조회 전용 API 라서 복제본에서 읽는다. 같은 매퍼 문장을 쓰는 정산 경로는 주 DB 에서 읽는다.
+    @ReplicaRead
+    @GetMapping("/{memberId}/balance")
+    public ResponseEntity<ApiResponse<?>> balance(@PathVariable Long memberId){
+        Money balance = shardedBalanceService.logicalBalance(memberId);
+        if (balance == null) {
+            throw new BusinessException(StatusCode.ACCOUNT_NOT_FOUND);
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(balance.plus(ledgerBalanceService.pending(memberId))));
+    }
+}
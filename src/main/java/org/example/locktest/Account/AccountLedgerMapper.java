@@ -0,0 +1,20 @@
+package org.example.locktest.Account;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.locktest.money.Money;
+
+import java.util.List;
+
+@Mapper
+public interface AccountLedgerMapper {
+    int insertEntries(@Param("entries") List<LedgerEntry> entries);
+
+    Money sumPendingByMemberId(@Param("memberId") Long memberId);
+
+    List<LedgerEntry> searchPendingByMemberIdForUpdate(@Param("memberId") Long memberId, @Param("limit") int limit);
+
+    int markCompacted(@Param("entryIds") List<Long> entryIds);
+
+    List<Long> searchPendingMemberIds(@Param("limit") int limit);
+}
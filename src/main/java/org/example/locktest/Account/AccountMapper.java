@@ -3,38 +3,47 @@ package org.example.locktest.Account;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.example.locktest.Account.Account;
+import org.example.locktest.money.Money;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 @Mapper
 public interface AccountMapper {
+    // account_id, member_id 를 채워서 넘긴다. 대량 적재는 BATCH 실행기로 이 문장을 모아 보낸다.
+    int insertAccount(Account account);
+
     boolean existsByAccountNumberAndAccountPassword(@Param("accountNumber") String accountNumber,
                                                     @Param("accountPassword") String accountPassword);
 
     boolean existsByNameAndAccountNumberAndAccountPassword(@Param("name") String name,
                                                            @Param("accountNumber") String accountNumber, @Param("accountPassword") String accountPassword);
 
-    void transactionBalance(@Param("receiverId")Long receiverId, @Param("senderId") Long senderId, @Param("amount") BigDecimal amount);
+    void transactionBalance(@Param("receiverId")Long receiverId, @Param("senderId") Long senderId, @Param("amount") Money amount);
 
     void updateMemberIdByAccountNumber(@Param("accountNumber") String accountNumber, @Param("memberId") Long memberId);
 
     Account searchAccountByMemberId(@Param("memberId") Long memberId);
 
-    void withdraw(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
+    void withdraw(@Param("accountNumber") String accountNumber, @Param("amount") Money amount);
 
     Account searchAccountByMemberIdForUpdate(@Param("memberId") Long memberId);
 
     int updateBalanceWithVersion(
             @Param("memberId") Long memberId,
-            @Param("newBalance") BigDecimal newBalance,
+            @Param("newBalance") Money newBalance,
             @Param("currentVersion") Long currentVersion
     );
     int updateBalancesWithOptimisticLock(
             @Param("senderId") Long senderId,
             @Param("receiverId") Long receiverId,
-            @Param("amount") BigDecimal amount,
+            @Param("amount") Money amount,
             @Param("senderVersion") Long senderVersion,
             @Param("receiverVersion") Long receiverVersion
     );
-}
 
+    List<Account> searchAccountsByMemberIdsForUpdate(@Param("memberIds") List<Long> memberIds);
+
+    int updateBalancesByDelta(@Param("deltas") List<BalanceDelta> deltas);
+
+    int addBalance(@Param("memberId") Long memberId, @Param("amount") Money amount);
+}
@@ -0,0 +1,15 @@
+package org.example.locktest.Account;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.example.locktest.money.Money;
+
+// 여러 계좌 잔액을 한 번의 UPDATE 로 바꿀 때 쓰는 계좌별 증감액
+@Getter
+@ToString
+@AllArgsConstructor
+public class BalanceDelta {
+    private Long memberId;
+    private Money delta;
+}
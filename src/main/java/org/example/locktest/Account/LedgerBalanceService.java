@@ -0,0 +1,106 @@
+package org.example.locktest.Account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// 원장(ledger) 모드 잔액.
+// 입금은 ACCOUNT 행을 건드리지 않고 분개 행을 INSERT 만 하므로, 인기 수취 계좌도 삽입 속도만큼 받을 수 있다.
+// ACCOUNT.balance 는 스냅샷이고, 쌓인 입금 분개는 주기적으로 스냅샷에 합친다(compaction).
+// 출금은 송금인 계좌 행을 잠근 채 스냅샷에서 바로 빼므로 스냅샷이 실제 잔액보다 커지는 일이 없다.
+@Slf4j
+@Service
+public class LedgerBalanceService {
+    private final AccountMapper accountMapper;
+    private final AccountLedgerMapper ledgerMapper;
+    private final TransactionTemplate compactTransaction;
+    private final boolean enabled;
+    private final int compactBatchSize;
+    private final int compactMemberLimit;
+
+    public LedgerBalanceService(AccountMapper accountMapper,
+                                AccountLedgerMapper ledgerMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${settlement.ledger.enabled:false}") boolean enabled,
+                                @Value("${settlement.ledger.compact-batch-size:500}") int compactBatchSize,
+                                @Value("${settlement.ledger.compact-member-limit:100}") int compactMemberLimit) {
+        this.accountMapper = accountMapper;
+        this.ledgerMapper = ledgerMapper;
+        this.compactTransaction = new TransactionTemplate(transactionManager);
+        this.compactTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.enabled = enabled;
+        this.compactBatchSize = compactBatchSize;
+        this.compactMemberLimit = compactMemberLimit;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 송금인 계좌 행은 호출한 쪽에서 잠가 둔 상태여야 한다.
+    // 출금 분개는 스냅샷에 바로 반영했으므로 compacted 로, 입금 분개는 합치기 전 상태로 남긴다.
+    public void transfer(Long senderId, Long receiverId, Long expenseId, Money amount) {
+        accountMapper.addBalance(senderId, amount.negate());
+        ledgerMapper.insertEntries(List.of(
+                LedgerEntry.builder().memberId(senderId).expenseId(expenseId)
+                        .entryType(LedgerEntry.Type.DEBIT).amount(amount.negate()).compacted(true).build(),
+                LedgerEntry.builder().memberId(receiverId).expenseId(expenseId)
+                        .entryType(LedgerEntry.Type.CREDIT).amount(amount).compacted(false).build()));
+    }
+
+    // 아직 스냅샷에 합치지 않은 분개 합계. 원장 모드가 꺼져 있으면 0.
+    public Money pending(Long memberId) {
+        if (!enabled) {
+            return Money.ZERO;
+        }
+        return ledgerMapper.sumPendingByMemberId(memberId);
+    }
+
+    // 본 계좌 행 -> 분개 행 순서로 잠가서 출금 경로와 같은 순서를 지킨다.
+    // READ COMMITTED 라 조회한 분개 행만 잠기고, 그 사이 들어오는 입금 분개는 다음 번에 합친다.
+    // 이미 열린 트랜잭션에 참여하면 격리 수준 지정이 무시되므로, 주기 합산과 settleLedger 처럼 READ COMMITTED 구간에서만 부른다.
+    // 다른 트랜잭션에서 출금 가능 여부만 볼 때는 pending() 을 쓴다.
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Money compact(Long memberId) {
+        if (!enabled) {
+            return Money.ZERO;
+        }
+        Account account = accountMapper.searchAccountByMemberIdForUpdate(memberId);
+        if (account == null) {
+            return Money.ZERO;
+        }
+        List<LedgerEntry> entries = ledgerMapper.searchPendingByMemberIdForUpdate(memberId, compactBatchSize);
+        if (entries.isEmpty()) {
+            return Money.ZERO;
+        }
+        Money total = Money.sum(entries.stream().map(LedgerEntry::getAmount).toList());
+        accountMapper.addBalance(memberId, total);
+        ledgerMapper.markCompacted(entries.stream().map(LedgerEntry::getEntryId).toList());
+        log.info("compact: 원장 분개 {}건을 스냅샷에 합쳤습니다. memberId={}, amount={}", entries.size(), memberId, total);
+        return total;
+    }
+
+    @Scheduled(initialDelayString = "${settlement.ledger.compact-interval-ms:1000}",
+            fixedDelayString = "${settlement.ledger.compact-interval-ms:1000}")
+    public void compactPending() {
+        if (!enabled) {
+            return;
+        }
+        for (Long memberId : ledgerMapper.searchPendingMemberIds(compactMemberLimit)) {
+            try {
+                compactTransaction.execute(status -> compact(memberId));
+            } catch (RuntimeException e) {
+                log.warn("compact 실패: 다음 주기에 다시 시도합니다. memberId={} - {}", memberId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.locktest.Account;
+
+import lombok.*;
+import org.example.locktest.money.Money;
+
+import java.time.LocalDateTime;
+
+@Builder
+@ToString
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+    private Long entryId;
+    private Long memberId;
+    private Long expenseId;
+    private Type entryType;
+    private Money amount;
+    private Boolean compacted;
+    private LocalDateTime createdAt;
+
+    public enum Type {
+        DEBIT, CREDIT
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.locktest.Account;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 뜨거운 수취 계좌 전용 분할 잔액.
+// 입금은 ACCOUNT 행 대신 K개의 샤드 행 중 하나에 쌓고, 주기적으로 본 계좌에 합친다.
+@Slf4j
+@Service
+public class ShardedBalanceService {
+    private final AccountMapper accountMapper;
+    private final AccountBalanceShardMapper shardMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> hotMemberIds;
+    private final int shardCount;
+
+    public ShardedBalanceService(AccountMapper accountMapper,
+                                 AccountBalanceShardMapper shardMapper,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${settlement.shard.hot-member-ids:}") List<Long> hotMemberIds,
+                                 @Value("${settlement.shard.count:8}") int shardCount) {
+        this.accountMapper = accountMapper;
+        this.shardMapper = shardMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.hotMemberIds = Set.copyOf(hotMemberIds);
+        this.shardCount = shardCount;
+    }
+
+    public boolean isHot(Long memberId) {
+        return hotMemberIds.contains(memberId);
+    }
+
+    // 본 계좌 행을 잠그지 않고 임의의 샤드 행에 입금한다.
+    public void credit(Long memberId, Money amount) {
+        shardMapper.credit(memberId, randomSlot(), amount);
+    }
+
+    // 입금이 한 샤드 행에 몰리지 않도록 매번 임의의 칸을 고른다.
+    public int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(shardCount);
+    }
+
+    public Money logicalBalance(Long memberId) {
+        Account account = accountMapper.searchAccountByMemberId(memberId);
+        if (account == null) {
+            return null;
+        }
+        if (!isHot(memberId)) {
+            return account.getBalance();
+        }
+        return account.getBalance().plus(shardMapper.sumByMemberId(memberId));
+    }
+
+    // 본 계좌 행 -> 샤드 행 순서로 잠가서 입금/출금 경로와 같은 순서를 지킨다.
+    @Transactional
+    public Money foldIn(Long memberId) {
+        Account account = accountMapper.searchAccountByMemberIdForUpdate(memberId);
+        if (account == null) {
+            return Money.ZERO;
+        }
+        Money pending = Money.sum(shardMapper.searchBalancesByMemberIdForUpdate(memberId));
+        if (pending.isZero()) {
+            return Money.ZERO;
+        }
+        accountMapper.addBalance(memberId, pending);
+        shardMapper.resetByMemberId(memberId);
+        log.info("foldIn: 샤드 잔액 합산 완료. memberId={}, amount={}", memberId, pending);
+        return pending;
+    }
+
+    @Scheduled(initialDelayString = "${settlement.shard.fold-interval-ms:5000}",
+            fixedDelayString = "${settlement.shard.fold-interval-ms:5000}")
+    public void foldInHotAccounts() {
+        for (Long memberId : hotMemberIds) {
+            try {
+                transactionTemplate.execute(status -> foldIn(memberId));
+            } catch (RuntimeException e) {
+                log.warn("foldIn 실패: 다음 주기에 다시 시도합니다. memberId={} - {}", memberId, e.getMessage());
+            }
+        }
+    }
+}
@@ -2,8 +2,12 @@ package org.example.locktest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@PropertySource("classpath:settlement-defaults.properties")
 public class LockTestApplication {
 
 	public static void main(String[] args) {
@@ -9,6 +9,7 @@ public enum StatusCode {
     // Success
     OK(200, "S200", "Success"),
     CREATED(201, "S201", "Created Success"),
+    ACCEPTED(202, "S202", "Accepted"),
 
     // Client Errors
     BAD_REQUEST(400, "C400", "Bad Request"),
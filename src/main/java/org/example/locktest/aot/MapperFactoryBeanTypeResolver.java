@@ -0,0 +1,31 @@
+package org.example.locktest.aot;
+
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.ResolvableType;
+
+// 매퍼 스캐너가 만든 MapperFactoryBean 정의는 매퍼 인터페이스를 문자열 생성자 인자로만 들고 있어서,
+// AOT 가 생성하는 빈 등록 코드에서는 AccountMapper 같은 타입으로 주입할 수 없다.
+// 인터페이스 Class 를 생성자 인자와 대상 타입(MapperFactoryBean<AccountMapper>)으로 드러내 빌드 시점에 타입이 정해지게 한다.
+public class MapperFactoryBeanTypeResolver implements MergedBeanDefinitionPostProcessor {
+
+    @Override
+    public void postProcessMergedBeanDefinition(RootBeanDefinition beanDefinition, Class<?> beanType, String beanName) {
+        if (!beanDefinition.hasBeanClass() || !MapperFactoryBean.class.isAssignableFrom(beanDefinition.getBeanClass())) {
+            return;
+        }
+        if (!beanDefinition.getResolvableType().hasUnresolvableGenerics()) {
+            return;
+        }
+        Class<?> mapperInterface = MyBatisAotProcessor.mapperInterfaceOf(beanDefinition);
+        if (mapperInterface == null) {
+            return;
+        }
+        ConstructorArgumentValues arguments = new ConstructorArgumentValues();
+        arguments.addGenericArgumentValue(mapperInterface);
+        beanDefinition.setConstructorArgumentValues(arguments);
+        beanDefinition.setTargetType(ResolvableType.forClassWithGenerics(beanDefinition.getBeanClass(), mapperInterface));
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.locktest.aot;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// mybatis-spring-boot 3.0.4 에는 Spring AOT 지원이 없어 매퍼 빈 정의를 AOT 로 옮길 수 있게 보완한다.
+// 빌드 시점 처리(MyBatisAotProcessor)는 META-INF/spring/aot.factories 로 등록한다.
+@Configuration(proxyBeanMethods = false)
+public class MyBatisAotConfig {
+
+    @Bean
+    public static MapperFactoryBeanTypeResolver mapperFactoryBeanTypeResolver() {
+        return new MapperFactoryBeanTypeResolver();
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.locktest.aot;
+
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.mybatis.spring.mapper.MapperScannerConfigurer;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.aot.BeanRegistrationExcludeFilter;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// 빌드 시점(processAot)에 매퍼 스캔 결과를 생성 코드로 굳히고, 매퍼가 실행 중에 쓰는 리소스와 타입을 힌트로 남긴다.
+//   - MapperScannerConfigurer 는 이미 스캔한 결과가 생성 코드에 들어가므로 AOT 실행 시 다시 돌지 않게 뺀다.
+//   - 매퍼 XML, 매퍼 인터페이스의 JDK 프록시, 결과/파라미터 타입의 리플렉션 힌트를 등록한다. JVM 모드에서는 쓰이지 않고 네이티브 이미지용이다.
+public class MyBatisAotProcessor implements BeanFactoryInitializationAotProcessor, BeanRegistrationExcludeFilter {
+    private static final String MAPPER_RESOURCES = "mapper/*.xml";
+
+    @Override
+    public boolean isExcludedFromAotProcessing(RegisteredBean registeredBean) {
+        return MapperScannerConfigurer.class.isAssignableFrom(registeredBean.getBeanClass());
+    }
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Set<Class<?>> mapperInterfaces = new LinkedHashSet<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (MapperFactoryBean.class.getName().equals(definition.getBeanClassName())) {
+                Class<?> mapperInterface = mapperInterfaceOf(definition);
+                if (mapperInterface != null) {
+                    mapperInterfaces.add(mapperInterface);
+                }
+            }
+        }
+        if (mapperInterfaces.isEmpty()) {
+            return null;
+        }
+        return (generationContext, code) -> {
+            RuntimeHints hints = generationContext.getRuntimeHints();
+            hints.resources().registerPattern(MAPPER_RESOURCES);
+            for (Class<?> mapperInterface : mapperInterfaces) {
+                hints.proxies().registerJdkProxy(mapperInterface);
+                hints.reflection().registerType(mapperInterface, MemberCategory.INVOKE_PUBLIC_METHODS);
+                for (Method method : mapperInterface.getDeclaredMethods()) {
+                    registerDataType(hints, ResolvableType.forMethodReturnType(method));
+                    for (int i = 0; i < method.getParameterCount(); i++) {
+                        registerDataType(hints, ResolvableType.forMethodParameter(method, i));
+                    }
+                }
+            }
+        };
+    }
+
+    // 결과 매핑과 #{} 바인딩은 getter/setter 와 기본 생성자를 리플렉션으로 쓴다. 컬렉션/커서는 원소 타입을 본다.
+    private static void registerDataType(RuntimeHints hints, ResolvableType type) {
+        Class<?> raw = type.resolve();
+        if (raw == null) {
+            return;
+        }
+        if (Iterable.class.isAssignableFrom(raw)) {
+            registerDataType(hints, type.getGeneric(0));
+            return;
+        }
+        if (raw.isPrimitive() || ClassUtils.isPrimitiveWrapper(raw) || raw.getName().startsWith("java.")) {
+            return;
+        }
+        hints.reflection().registerType(raw, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+    }
+
+    static Class<?> mapperInterfaceOf(BeanDefinition definition) {
+        Object value = definition.getPropertyValues().get("mapperInterface");
+        if (value instanceof Class<?> type) {
+            return type;
+        }
+        if (value instanceof String className) {
+            return ClassUtils.resolveClassName(className, MyBatisAotProcessor.class.getClassLoader());
+        }
+        return null;
+    }
+}
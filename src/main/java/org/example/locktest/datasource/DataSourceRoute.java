@@ -0,0 +1,6 @@
+package org.example.locktest.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,24 @@
+package org.example.locktest.datasource;
+
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+// 매퍼 XML 에서 드라이버마다 다른 힌트를 databaseId 로 나눠 쓸 수 있게 DB 제품명을 짧은 이름으로 바꿔 준다.
+// databaseId 가 없는 문장은 어느 DB 에서나 쓰이고, 같은 id 의 databaseId 문장이 있으면 그쪽이 우선한다.
+@Configuration(proxyBeanMethods = false)
+public class DatabaseIdConfig {
+
+    @Bean
+    public DatabaseIdProvider databaseIdProvider() {
+        Properties properties = new Properties();
+        properties.setProperty("MySQL", "mysql");
+        properties.setProperty("H2", "h2");
+        VendorDatabaseIdProvider provider = new VendorDatabaseIdProvider();
+        provider.setProperties(properties);
+        return provider;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.locktest.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// settlement.replica.enabled=true 일 때 주 DB 풀과 복제본 풀을 따로 만들고, 라우팅 DataSource 하나로 묶어 내보낸다.
+// 주 DB 풀은 기존 spring.datasource.* 설정을 그대로 쓰고, 두 풀은 라우팅 DataSource 를 거쳐서만 주입된다.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "settlement.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .driverClassName(properties.getDriverClassName())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaProperties properties,
+                                               MeterRegistry registry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, properties, registry);
+        monitor.check();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return routingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor);
+    }
+
+    public static DataSource routingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(monitor::isReplicaUsable);
+        routing.setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.locktest.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+// 복제본 지연을 주기적으로 읽어 라우팅에 쓸 수 있는지 판단한다.
+//   datasource.replica.lag       마지막으로 읽은 지연(ms). 읽지 못했으면 -1
+//   datasource.replica.usable    복제본으로 보내는 중이면 1
+// 지연 조회가 실패하거나 복제가 멈춰 지연이 NULL 이면 쓸 수 없는 것으로 보고 주 DB 로 돌린다.
+@Slf4j
+public class ReplicaLagMonitor {
+    private final JdbcTemplate replicaJdbc;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagMs;
+
+    private volatile long lagMillis = -1;
+    private volatile boolean usable;
+    private boolean checked;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaProperties properties, MeterRegistry registry) {
+        this.replicaJdbc = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbc.setQueryTimeout(1);
+        this.lagQuery = properties.getLagQuery();
+        this.lagColumn = properties.getLagColumn();
+        this.maxLagMs = properties.getMaxLagMs();
+        Gauge.builder("datasource.replica.lag", this, m -> m.lagMillis).baseUnit("milliseconds").register(registry);
+        Gauge.builder("datasource.replica.usable", this, m -> m.usable ? 1 : 0).register(registry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${settlement.replica.check-interval-ms:1000}")
+    public void check() {
+        long lag;
+        String failure = null;
+        try {
+            lag = readLagMillis();
+        } catch (DataAccessException e) {
+            lag = -1;
+            failure = e.getMessage();
+        }
+        boolean nowUsable = lag >= 0 && lag <= maxLagMs;
+        // 상태가 바뀔 때만 남긴다. 복제본이 내려가 있는 동안 주기마다 경고가 쌓이지 않게 한다.
+        if (nowUsable && !usable) {
+            log.info("복제본 조회 재개: lag={}ms", lag);
+        } else if (!nowUsable && (usable || !checked)) {
+            log.warn("복제본 조회 중단, 주 DB 로 보냅니다: lag={}ms, maxLag={}ms{}", lag, maxLagMs,
+                    failure == null ? "" : " - " + failure);
+        }
+        lagMillis = lag;
+        usable = nowUsable;
+        checked = true;
+    }
+
+    private long readLagMillis() {
+        if (!StringUtils.hasText(lagQuery)) {
+            replicaJdbc.queryForObject("SELECT 1", Integer.class);
+            return 0;
+        }
+        List<Map<String, Object>> rows = replicaJdbc.queryForList(lagQuery);
+        if (rows.isEmpty()) {
+            // 복제가 설정되지 않은 인스턴스다. 주 DB 를 가리키고 있을 수 있으니 지연을 알 수 없는 것으로 본다.
+            return -1;
+        }
+        for (Map.Entry<String, Object> column : rows.get(0).entrySet()) {
+            if (column.getKey().equalsIgnoreCase(lagColumn)) {
+                // 복제 스레드가 멈춰 있으면 NULL 이다.
+                return column.getValue() instanceof Number seconds ? seconds.longValue() * 1000 : -1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.locktest.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// settlement.replica.* 설정. enabled=false 면 지금처럼 spring.datasource 하나만 쓴다.
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "settlement.replica")
+public class ReplicaProperties {
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private int maximumPoolSize = 10;
+
+    // 이보다 뒤처지면 복제본으로 보내지 않는다.
+    private long maxLagMs = 1000;
+    private long checkIntervalMs = 1000;
+
+    // 지연을 읽는 쿼리와 컬럼(초 단위). MySQL 8.0.22 이상 기준이며 REPLICATION CLIENT 권한이 필요하다.
+    // 쿼리를 비워 두면 연결 확인만 하고 지연은 0 으로 본다.
+    private String lagQuery = "SHOW REPLICA STATUS";
+    private String lagColumn = "Seconds_Behind_Source";
+}
@@ -0,0 +1,16 @@
+package org.example.locktest.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 트랜잭션 밖에서 호출될 때 복제본에서 읽어도 되는 조회에 붙인다. 매퍼 메서드나 서비스/컨트롤러 메서드, 클래스에 쓸 수 있다.
+// 매퍼 문장에는 정산 같은 쓰기 경로가 부르지 않는 조회에만 붙인다. 쓰기 경로가 트랜잭션 밖에서 부르면 늦은 값을 읽는다.
+// 쓰기 트랜잭션 안에서 호출되면 방금 쓴 값을 읽어야 하므로 무시하고 주 DB 를 쓴다.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplicaRead {
+}
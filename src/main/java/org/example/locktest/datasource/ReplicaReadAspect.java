@@ -0,0 +1,21 @@
+package org.example.locktest.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class ReplicaReadAspect {
+
+    @Around("@annotation(org.example.locktest.datasource.ReplicaRead) || @within(org.example.locktest.datasource.ReplicaRead)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        ReplicaReadContext.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaReadContext.exit();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.locktest.datasource;
+
+// @ReplicaRead 구간에 들어와 있는지 스레드별로 기록한다. 중첩 호출이 있으므로 깊이로 센다.
+public final class ReplicaReadContext {
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private ReplicaReadContext() {
+    }
+
+    public static void enter() {
+        DEPTH.get()[0]++;
+    }
+
+    public static void exit() {
+        int[] depth = DEPTH.get();
+        if (--depth[0] <= 0) {
+            DEPTH.remove();
+        }
+    }
+
+    public static boolean isActive() {
+        return DEPTH.get()[0] > 0;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.locktest.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BooleanSupplier;
+
+// 커넥션을 얻는 시점의 문맥으로 주 DB/복제본을 고른다.
+//   트랜잭션 안: 읽기 전용 트랜잭션만 복제본. 쓰기 트랜잭션의 조회와 잠금 조회(FOR UPDATE)는 모두 주 DB.
+//   트랜잭션 밖: @ReplicaRead 구간의 조회만 복제본.
+// 복제본이 지연되거나 응답하지 않으면 주 DB 로 돌린다.
+// 트랜잭션 시작 시점에는 읽기 전용 여부가 아직 정해지지 않으므로 LazyConnectionDataSourceProxy 로 감싸 첫 문장 직전에 고르게 한다.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final BooleanSupplier replicaUsable;
+
+    public ReplicaRoutingDataSource(BooleanSupplier replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return route();
+    }
+
+    DataSourceRoute route() {
+        boolean wantsReplica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || (!TransactionSynchronizationManager.isActualTransactionActive() && ReplicaReadContext.isActive());
+        if (wantsReplica && replicaUsable.getAsBoolean()) {
+            return DataSourceRoute.REPLICA;
+        }
+        return DataSourceRoute.PRIMARY;
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.locktest.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// 원화 금액. 원에는 소수 단위가 없으므로 최소 단위(원)를 long 하나로 들고 다닌다.
+// 비교는 객체를 만들지 않고, 더하기/빼기는 넘치면 ArithmeticException 을 던진다.
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money of(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // 소수 부분이 남거나 long 범위를 넘으면 ArithmeticException.
+    public static Money of(BigDecimal amount) {
+        return of(amount.setScale(0, RoundingMode.UNNECESSARY).longValueExact());
+    }
+
+    public static Money parse(String text) {
+        return of(new BigDecimal(text.trim()));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits);
+    }
+
+    public Money plus(Money other) {
+        return of(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return of(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    // 중간 합계 객체를 만들지 않고 long 으로 더한 뒤 한 번만 감싼다.
+    public static Money sum(Iterable<Money> amounts) {
+        long total = 0;
+        for (Money amount : amounts) {
+            total = Math.addExact(total, amount.minorUnits);
+        }
+        return of(total);
+    }
+
+    public Money negate() {
+        return of(Math.negateExact(minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(minorUnits);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.locktest.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+// JSON 에서는 원 단위 정수로 주고받는다. "64333" 같은 문자열과 64333.00 처럼 소수 부분이 0 인 값도 받는다.
+@JsonComponent
+public class MoneyJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.minorUnits());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return Money.of(p.getLongValue());
+            }
+            if (token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            try {
+                return token == JsonToken.VALUE_STRING ? Money.parse(p.getText()) : Money.of(p.getDecimalValue());
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw ctxt.weirdStringException(p.getText(), Money.class, "원 단위 정수 금액이어야 합니다.");
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.locktest.money;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// DECIMAL 금액 컬럼을 long 으로 쓰고, 읽을 때는 BigDecimal 로 받아 Money.of 로 바꾼다.
+// getLong 은 소수 부분을 말없이 버리므로, 원 단위가 아닌 값은 여기서 ArithmeticException 으로 드러낸다.
+// 빈으로 등록하면 MyBatis 자동 설정이 모든 매퍼에 적용한다.
+@Component
+@MappedTypes(Money.class)
+public class MoneyTypeHandler extends BaseTypeHandler<Money> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Money parameter, JdbcType jdbcType) throws SQLException {
+        ps.setLong(i, parameter.minorUnits());
+    }
+
+    @Override
+    public Money getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toMoney(rs.getBigDecimal(columnName));
+    }
+
+    @Override
+    public Money getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toMoney(rs.getBigDecimal(columnIndex));
+    }
+
+    @Override
+    public Money getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toMoney(cs.getBigDecimal(columnIndex));
+    }
+
+    private static Money toMoney(BigDecimal value) {
+        return value == null ? null : Money.of(value);
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.locktest.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 매핑 구문(AccountMapper.transactionBalance 등)별 실행 시간, 처리 행 수, 오류와 잠금 대기 초과 건수를 모은다.
+// JDBC 호출마다 로그를 남기던 log4jdbc 를 운영에서 빼기 위한 것이다.
+//   sql.statement{statement, outcome}        실행 시간 (sample-rate 비율만 기록)
+//   sql.statement.rows{statement}            조회/변경 행 수 (sample-rate 비율만 기록)
+//   sql.statement.errors{statement, reason}  lock_timeout(1205), deadlock(1213), other
+// 호출 수, 오류, 느린 구문은 표본과 관계없이 모두 센다.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "settlement.sql-profiling.enabled", havingValue = "true", matchIfMissing = true)
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})
+})
+public class SqlProfilingInterceptor implements Interceptor {
+    static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    static final int MYSQL_DEADLOCK = 1213;
+
+    private final MeterRegistry registry;
+    private final Set<String> mappers;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final Map<String, StatementRecorder> recorders = new ConcurrentHashMap<>();
+    private final Set<String> skipped = ConcurrentHashMap.newKeySet();
+
+    public SqlProfilingInterceptor(MeterRegistry registry,
+                                   @Value("${settlement.sql-profiling.mappers:AccountMapper,ExpenseMapper,SettlementMapper}") Set<String> mappers,
+                                   @Value("${settlement.sql-profiling.sample-rate:1.0}") double sampleRate,
+                                   @Value("${settlement.sql-profiling.slow-threshold-ms:200}") long slowThresholdMs) {
+        this.registry = registry;
+        this.mappers = mappers;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        StatementRecorder recorder = recorderOf(statement.getId());
+        if (recorder == null) {
+            return invocation.proceed();
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            long elapsed = System.nanoTime() - start;
+            int rows = rowsOf(result);
+            recorder.calls.increment();
+            if (sampled()) {
+                recorder.success.record(elapsed, TimeUnit.NANOSECONDS);
+                recorder.rows.record(rows);
+            }
+            if (elapsed >= slowThresholdNanos) {
+                recorder.slow.increment();
+                log.warn("느린 SQL: {} {}ms, rows={}", recorder.name, TimeUnit.NANOSECONDS.toMillis(elapsed), rows);
+            }
+            return result;
+        } catch (Throwable t) {
+            long elapsed = System.nanoTime() - start;
+            recorder.calls.increment();
+            recorder.failure.record(elapsed, TimeUnit.NANOSECONDS);
+            String reason = reasonOf(t);
+            Counter.builder("sql.statement.errors")
+                    .tag("statement", recorder.name)
+                    .tag("reason", reason)
+                    .register(registry)
+                    .increment();
+            if (!"other".equals(reason)) {
+                log.warn("SQL 잠금 오류: {} reason={} {}ms", recorder.name, reason, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            throw t;
+        }
+    }
+
+    public List<StatementStats> snapshot() {
+        List<StatementStats> stats = new ArrayList<>();
+        recorders.values().stream()
+                .sorted(Comparator.comparing(recorder -> recorder.name))
+                .forEach(recorder -> stats.add(recorder.stats(registry)));
+        return stats;
+    }
+
+    // 대상 매퍼가 아니면 null. 한 번 판단한 구문 id 는 다시 파싱하지 않는다.
+    private StatementRecorder recorderOf(String statementId) {
+        StatementRecorder recorder = recorders.get(statementId);
+        if (recorder != null || skipped.contains(statementId)) {
+            return recorder;
+        }
+        int methodSeparator = statementId.lastIndexOf('.');
+        String namespace = methodSeparator < 0 ? "" : statementId.substring(0, methodSeparator);
+        String mapper = namespace.substring(namespace.lastIndexOf('.') + 1);
+        if (!mappers.contains(mapper)) {
+            skipped.add(statementId);
+            return null;
+        }
+        return recorders.computeIfAbsent(statementId,
+                id -> new StatementRecorder(mapper + id.substring(methodSeparator), registry));
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private static int rowsOf(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Collection<?> rows) {
+            return rows.size();
+        }
+        return result == null ? 0 : 1;
+    }
+
+    static String reasonOf(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                if (sqlException.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                    return "lock_timeout";
+                }
+                if (sqlException.getErrorCode() == MYSQL_DEADLOCK) {
+                    return "deadlock";
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return "other";
+    }
+
+    private static final class StatementRecorder {
+        private final String name;
+        private final Timer success;
+        private final Timer failure;
+        private final DistributionSummary rows;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+
+        private StatementRecorder(String name, MeterRegistry registry) {
+            this.name = name;
+            this.success = timer(registry, name, "success");
+            this.failure = timer(registry, name, "error");
+            this.rows = DistributionSummary.builder("sql.statement.rows")
+                    .tag("statement", name)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String name, String outcome) {
+            return Timer.builder("sql.statement")
+                    .tag("statement", name)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private StatementStats stats(MeterRegistry registry) {
+            double p50 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile value : success.takeSnapshot().percentileValues()) {
+                if (value.percentile() == 0.5) {
+                    p50 = value.value(TimeUnit.MILLISECONDS);
+                } else if (value.percentile() == 0.99) {
+                    p99 = value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return new StatementStats(
+                    name,
+                    calls.sum(),
+                    success.count(),
+                    success.mean(TimeUnit.MILLISECONDS),
+                    p50,
+                    p99,
+                    success.max(TimeUnit.MILLISECONDS),
+                    rows.mean(),
+                    slow.sum(),
+                    failure.count(),
+                    errors(registry, "lock_timeout"),
+                    errors(registry, "deadlock"));
+        }
+
+        private long errors(MeterRegistry registry, String reason) {
+            Counter counter = registry.find("sql.statement.errors").tags("statement", name, "reason", reason).counter();
+            return counter == null ? 0 : (long) counter.count();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.locktest.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// GET /actuator/sqlstats
+@Component
+@Endpoint(id = "sqlstats")
+@ConditionalOnProperty(name = "settlement.sql-profiling.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+    private final SqlProfilingInterceptor sqlProfilingInterceptor;
+
+    @ReadOperation
+    public List<StatementStats> statements() {
+        return sqlProfilingInterceptor.snapshot();
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.locktest.sql;
+
+// 매핑 구문 하나의 누적 통계. 시간은 밀리초, 지연/행 수 값은 표본으로 기록된 호출만 반영한다.
+public record StatementStats(
+        String statement,
+        long calls,
+        long sampled,
+        double meanMs,
+        double p50Ms,
+        double p99Ms,
+        double maxMs,
+        double meanRows,
+        long slow,
+        long errors,
+        long lockTimeouts,
+        long deadlocks) {
+}
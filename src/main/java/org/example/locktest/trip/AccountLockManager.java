@@ -0,0 +1,96 @@
+package org.example.locktest.trip;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// memberId 기준 스트라이프 락. DB 커넥션을 잡기 전에 같은 계좌 요청을 JVM 안에서 줄 세운다.
+@Slf4j
+@Component
+public class AccountLockManager {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMs;
+
+    public AccountLockManager(@Value("${settlement.lock.stripes:1024}") int stripeCount,
+                              @Value("${settlement.lock.timeout-ms:3000}") long timeoutMs) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            // 공정 락: 대기 중인 스레드에게 도착 순서대로 넘겨준다.
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.mask = size - 1;
+        this.timeoutMs = timeoutMs;
+    }
+
+    // 스트라이프 번호 오름차순으로 잠가 교착 상태를 막는다. 같은 스트라이프는 한 번만 잠근다.
+    public Locks lock(Long... memberIds) {
+        int[] indexes = new int[memberIds.length];
+        for (int i = 0; i < memberIds.length; i++) {
+            if (memberIds[i] == null) {
+                throw new BusinessException(StatusCode.BAD_REQUEST, "회원 정보가 올바르지 않습니다.");
+            }
+            indexes[i] = stripeOf(memberIds[i]);
+        }
+        int[] ordered = Arrays.stream(indexes).sorted().distinct().toArray();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int acquired = 0;
+        try {
+            for (int index : ordered) {
+                ReentrantLock lock = stripes[index];
+                // 경합이 없으면 대기 큐를 거치지 않고 바로 획득한다.
+                if (!lock.tryLock()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !lock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                        log.warn("계좌 락 획득 시간 초과. memberIds={}, timeoutMs={}", Arrays.toString(memberIds), timeoutMs);
+                        throw new BusinessException(StatusCode.SERVICE_UNAVAILABLE, "요청이 많아 정산을 처리하지 못했습니다. 잠시 후 다시 시도해주세요.");
+                    }
+                }
+                acquired++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlock(ordered, acquired);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 락 대기 오류가 발생했습니다.");
+        } catch (RuntimeException e) {
+            unlock(ordered, acquired);
+            throw e;
+        }
+        return new Locks(ordered);
+    }
+
+    int stripeOf(Long memberId) {
+        int h = memberId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void unlock(int[] ordered, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[ordered[i]].unlock();
+        }
+    }
+
+    public final class Locks implements AutoCloseable {
+        private final int[] ordered;
+
+        private Locks(int[] ordered) {
+            this.ordered = ordered;
+        }
+
+        @Override
+        public void close() {
+            unlock(ordered, ordered.length);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.locktest.trip;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 비용/계좌별 최근 요청 수와 충돌 비율을 슬라이딩 윈도우로 추적해서
+// 뜨거운 키는 비관적 락(settle), 차가운 키는 낙관적 락(settle2)으로 보낸다.
+// 계좌 키는 송금인과 수취인(비용 결제자) 둘 다 본다. 여러 비용에서 돈이 몰리는 결제자 계좌가 대표적인 뜨거운 행이다.
+// 비관적 경로는 충돌 대부분을 잠금 대기로 흡수해 잠금 대기 초과나 데드락 재시도만 충돌로 보고하므로, 한 번 뜨거웠던 키는 min-dwell 동안 비관적 경로에 머문다.
+// 그렇지 않으면 비관적으로 보내자마자 충돌 비율이 식어 낙관적 경로로 돌아가고, 다시 충돌하는 일이 반복된다.
+// 최근 결정 목록에는 시도가 끝난 뒤 재시도 횟수까지 채운 결정만 넣고, 넣은 뒤에는 바꾸지 않는다.
+@Slf4j
+@Component
+public class AdaptiveSettlementRouter {
+    private static final int RECENT_DECISION_LIMIT = 100;
+    private static final int CLEANUP_INTERVAL = 1024;
+
+    private final SettlementStrategy pessimistic;
+    private final SettlementStrategy optimistic;
+    private final ExpenseCache expenseCache;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final long hotRequestThreshold;
+    private final double hotConflictRatio;
+    private final long minDwellMillis;
+
+    private final Map<String, SlidingWindowCounter> windows = new ConcurrentHashMap<>();
+    // 키별 비관적 경로 유지 만료 시각
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final Deque<RoutingDecision> recentDecisions = new ArrayDeque<>();
+    private final AtomicLong recordCount = new AtomicLong();
+
+    public AdaptiveSettlementRouter(PessimisticSettlementStrategy pessimistic,
+                                    OptimisticSettlementStrategy optimistic,
+                                    ExpenseCache expenseCache,
+                                    @Value("${settlement.adaptive.window-seconds:10}") int windowSeconds,
+                                    @Value("${settlement.adaptive.buckets:10}") int bucketCount,
+                                    @Value("${settlement.adaptive.hot-request-threshold:20}") long hotRequestThreshold,
+                                    @Value("${settlement.adaptive.hot-conflict-ratio:0.3}") double hotConflictRatio,
+                                    @Value("${settlement.adaptive.min-dwell-ms:10000}") long minDwellMillis) {
+        this.pessimistic = pessimistic;
+        this.optimistic = optimistic;
+        this.expenseCache = expenseCache;
+        this.bucketCount = bucketCount;
+        this.bucketMillis = Math.max(1, windowSeconds * 1000L / bucketCount);
+        this.hotRequestThreshold = hotRequestThreshold;
+        this.hotConflictRatio = hotConflictRatio;
+        this.minDwellMillis = minDwellMillis;
+    }
+
+    public RoutingDecision settle(SettlementRequestDto dto) {
+        Long receiverId = receiverOf(dto);
+        RoutingDecision decision = decide(dto, receiverId);
+        SettlementStrategy strategy = decision.isPessimistic() ? pessimistic : optimistic;
+        log.info("settleAuto: {} 전략 선택. expenseId={}, memberId={}, reason={}",
+                strategy.name(), dto.getExpenseId(), dto.getMemberId(), decision.getReason());
+
+        int conflicts = 0;
+        RoutingDecision completed;
+        try {
+            conflicts = strategy.settle(dto);
+        } catch (BusinessException e) {
+            // 잘못된 요청은 경합 신호가 아니다. 재시도 한도 초과 같은 서버 오류만 충돌로 센다.
+            if (e.getStatusCode() == StatusCode.INTERNAL_ERROR || e.getStatusCode() == StatusCode.SERVICE_UNAVAILABLE) {
+                conflicts = 1;
+            }
+            throw e;
+        } finally {
+            completed = decision.toBuilder().retries(conflicts).build();
+            publish(completed);
+            record(expenseKey(dto.getExpenseId()), conflicts);
+            record(accountKey(dto.getMemberId()), conflicts);
+            if (receiverId != null) {
+                record(accountKey(receiverId), conflicts);
+            }
+        }
+        return completed;
+    }
+
+    // 비용이 없으면 수취인 키 없이 라우팅하고, 오류 응답은 정산 경로에서 낸다.
+    private Long receiverOf(SettlementRequestDto dto) {
+        Expense expense = expenseCache.searchByExpenseId(dto.getExpenseId());
+        return expense == null ? null : expense.getMemberId();
+    }
+
+    RoutingDecision decide(SettlementRequestDto dto, Long receiverId) {
+        List<String> keys = new ArrayList<>(List.of(expenseKey(dto.getExpenseId()), accountKey(dto.getMemberId())));
+        if (receiverId != null) {
+            keys.add(accountKey(receiverId));
+        }
+
+        long now = now();
+        String reason = null;
+        for (String key : keys) {
+            SlidingWindowCounter.Totals totals = totalsOf(key);
+            if (isHot(totals)) {
+                pinnedUntil.put(key, now + minDwellMillis);
+                reason = describe(key, totals);
+                break;
+            }
+        }
+        if (reason == null) {
+            for (String key : keys) {
+                Long until = pinnedUntil.get(key);
+                if (until != null && until > now) {
+                    reason = "pinned " + key + ": " + (until - now) + "ms left";
+                    break;
+                }
+            }
+        }
+        boolean pessimisticRoute = reason != null;
+        if (!pessimisticRoute) {
+            StringBuilder cold = new StringBuilder("cold:");
+            for (String key : keys) {
+                cold.append(' ').append(key).append(' ').append(totalsOf(key)).append(';');
+            }
+            reason = cold.toString();
+        }
+
+        return RoutingDecision.builder()
+                .expenseId(dto.getExpenseId())
+                .memberId(dto.getMemberId())
+                .strategy(pessimisticRoute ? pessimistic.name() : optimistic.name())
+                .pessimistic(pessimisticRoute)
+                .reason(reason)
+                .decidedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void publish(RoutingDecision decision) {
+        synchronized (recentDecisions) {
+            if (recentDecisions.size() == RECENT_DECISION_LIMIT) {
+                recentDecisions.removeFirst();
+            }
+            recentDecisions.addLast(decision);
+        }
+    }
+
+    // 현재 뜨겁다고 판단되는 키와 최근 라우팅 결정을 보여준다.
+    public RoutingSnapshot snapshot() {
+        List<RoutingSnapshot.KeyStat> hotKeys = new ArrayList<>();
+        windows.forEach((key, window) -> {
+            SlidingWindowCounter.Totals totals = window.totals();
+            if (isHot(totals)) {
+                hotKeys.add(new RoutingSnapshot.KeyStat(key, totals.requests(), totals.conflicts()));
+            }
+        });
+        List<RoutingDecision> decisions;
+        synchronized (recentDecisions) {
+            decisions = new ArrayList<>(recentDecisions);
+        }
+        return RoutingSnapshot.builder()
+                .trackedKeys(windows.size())
+                .hotRequestThreshold(hotRequestThreshold)
+                .hotConflictRatio(hotConflictRatio)
+                .windowMillis(bucketMillis * bucketCount)
+                .hotKeys(hotKeys)
+                .recentDecisions(decisions)
+                .build();
+    }
+
+    private boolean isHot(SlidingWindowCounter.Totals totals) {
+        if (totals.requests() >= hotRequestThreshold) {
+            return true;
+        }
+        return totals.requests() > 0 && totals.conflictRatio() >= hotConflictRatio;
+    }
+
+    private String describe(String key, SlidingWindowCounter.Totals totals) {
+        if (totals.requests() >= hotRequestThreshold) {
+            return "hot " + key + ": requests " + totals.requests() + " >= " + hotRequestThreshold;
+        }
+        return "hot " + key + ": conflict ratio " + totals.conflicts() + "/" + totals.requests() + " >= " + hotConflictRatio;
+    }
+
+    private SlidingWindowCounter.Totals totalsOf(String key) {
+        SlidingWindowCounter window = windows.get(key);
+        return window == null ? SlidingWindowCounter.Totals.EMPTY : window.totals();
+    }
+
+    private void record(String key, int conflicts) {
+        windows.computeIfAbsent(key, k -> new SlidingWindowCounter(bucketCount, bucketMillis, this::now)).record(conflicts);
+        if (recordCount.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+            long now = now();
+            windows.entrySet().removeIf(e -> e.getValue().isIdle());
+            pinnedUntil.values().removeIf(until -> until <= now);
+        }
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static String expenseKey(Long expenseId) {
+        return "expense:" + expenseId;
+    }
+
+    private static String accountKey(Long memberId) {
+        return "account:" + memberId;
+    }
+}
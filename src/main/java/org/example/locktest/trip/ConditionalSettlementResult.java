@@ -0,0 +1,19 @@
+package org.example.locktest.trip;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// settleConditionally 의 단계별 변경 행 수. 성공이면 debited, credited, marked 가 모두 1 이다.
+@Getter
+@ToString
+@NoArgsConstructor
+public class ConditionalSettlementResult {
+    private int debited;
+    private int credited;
+    private int marked;
+
+    public boolean isApplied() {
+        return debited == 1 && credited == 1 && marked == 1;
+    }
+}
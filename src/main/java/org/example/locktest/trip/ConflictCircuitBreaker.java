@@ -0,0 +1,62 @@
+package org.example.locktest.trip;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 키(계좌/비용)별 락 충돌 비율이 임계값을 넘으면 일정 시간 동안 새 시도를 바로 거절한다.
+// 열린 시간이 지나면 다시 받아보고, 윈도우에 남은 충돌 비율이 여전히 높으면 다시 연다.
+@Slf4j
+public class ConflictCircuitBreaker {
+    private static final int CLEANUP_INTERVAL = 1024;
+
+    private final int bucketCount;
+    private final long bucketMillis;
+    private final int minRequests;
+    private final double conflictRatio;
+    private final long openMillis;
+
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final AtomicLong recordCount = new AtomicLong();
+
+    public ConflictCircuitBreaker(SettlementRetryProperties.Breaker properties) {
+        this.bucketCount = 10;
+        this.bucketMillis = Math.max(1, properties.getWindowSeconds() * 1000L / bucketCount);
+        this.minRequests = properties.getMinRequests();
+        this.conflictRatio = properties.getConflictRatio();
+        this.openMillis = properties.getOpenMillis();
+    }
+
+    public boolean isOpen(String key) {
+        State state = states.get(key);
+        return state != null && state.openUntil > System.currentTimeMillis();
+    }
+
+    public void record(String key, boolean conflict) {
+        State state = states.computeIfAbsent(key, k -> new State(new SlidingWindowCounter(bucketCount, bucketMillis)));
+        state.window.record(conflict ? 1 : 0);
+        if (conflict) {
+            SlidingWindowCounter.Totals totals = state.window.totals();
+            long now = System.currentTimeMillis();
+            if (totals.requests() >= minRequests && totals.conflictRatio() >= conflictRatio && state.openUntil <= now) {
+                state.openUntil = now + openMillis;
+                log.warn("circuit breaker 열림: key={}, {} ({}ms 동안 빠르게 실패)", key, totals, openMillis);
+            }
+        }
+        if (recordCount.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+            long now = System.currentTimeMillis();
+            states.entrySet().removeIf(e -> e.getValue().window.isIdle() && e.getValue().openUntil <= now);
+        }
+    }
+
+    private static final class State {
+        private final SlidingWindowCounter window;
+        private volatile long openUntil;
+
+        private State(SlidingWindowCounter window) {
+            this.window = window;
+        }
+    }
+}
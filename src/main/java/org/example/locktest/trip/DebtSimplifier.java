@@ -0,0 +1,63 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.money.Money;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+// 여행의 미정산 내역을 회원별 순 잔액으로 줄이고, 가장 많이 갚을 사람과 가장 많이 받을 사람을 차례로 맞춰 이체 목록을 만든다.
+// 한 번 맞출 때마다 적어도 한 명의 잔액이 0 이 되므로 이체는 (참여 회원 수 - 1) 건을 넘지 않는다.
+final class DebtSimplifier {
+    private static final Comparator<Position> LARGEST_FIRST =
+            Comparator.comparingLong(Position::remaining).reversed().thenComparing(Position::memberId);
+
+    private DebtSimplifier() {
+    }
+
+    // 양수면 받을 돈, 음수면 갚을 돈. 자기 자신에게 진 빚은 0 으로 상쇄된다.
+    static Map<Long, Money> netBalances(List<TripDebt> debts) {
+        Map<Long, Money> balances = new TreeMap<>();
+        for (TripDebt debt : debts) {
+            balances.merge(debt.getDebtorId(), debt.getAmount().negate(), Money::plus);
+            balances.merge(debt.getCreditorId(), debt.getAmount(), Money::plus);
+        }
+        return balances;
+    }
+
+    static List<NetTransfer> simplify(Map<Long, Money> balances) {
+        PriorityQueue<Position> debtors = new PriorityQueue<>(LARGEST_FIRST);
+        PriorityQueue<Position> creditors = new PriorityQueue<>(LARGEST_FIRST);
+        balances.forEach((memberId, balance) -> {
+            if (balance.isNegative()) {
+                debtors.add(new Position(memberId, -balance.minorUnits()));
+            } else if (balance.isPositive()) {
+                creditors.add(new Position(memberId, balance.minorUnits()));
+            }
+        });
+
+        List<NetTransfer> transfers = new ArrayList<>();
+        while (!debtors.isEmpty() && !creditors.isEmpty()) {
+            Position debtor = debtors.poll();
+            Position creditor = creditors.poll();
+            long amount = Math.min(debtor.remaining(), creditor.remaining());
+            transfers.add(new NetTransfer(debtor.memberId(), creditor.memberId(), Money.of(amount)));
+            if (debtor.remaining() > amount) {
+                debtors.add(new Position(debtor.memberId(), debtor.remaining() - amount));
+            }
+            if (creditor.remaining() > amount) {
+                creditors.add(new Position(creditor.memberId(), creditor.remaining() - amount));
+            }
+        }
+        if (!debtors.isEmpty() || !creditors.isEmpty()) {
+            throw new IllegalStateException("순 잔액 합계가 0 이 아닙니다: " + balances);
+        }
+        return transfers;
+    }
+
+    private record Position(Long memberId, long remaining) {
+    }
+}
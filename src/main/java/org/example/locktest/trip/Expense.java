@@ -2,8 +2,8 @@ package org.example.locktest.trip;
 
 import lombok.*;
 import org.example.locktest.Location;
+import org.example.locktest.money.Money;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter
@@ -16,9 +16,10 @@ public class Expense {
     private Long tripId;
     private Long memberId;
     private String expenseName;
-    private BigDecimal amount;
+    private Money amount;
     private Location location;
     private Boolean settlementCompleted;
+    private Integer unpaidCount;
     private LocalDateTime expenseDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,80 @@
+package org.example.locktest.trip;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+// ExpenseMapper.searchByExpenseId 앞단의 읽기 캐시.
+// 정산 경로는 비용이 만들어진 뒤 바뀌지 않는 memberId, amount 만 쓰므로 재시도마다 DB 를 다시 읽을 필요가 없다.
+// 미정산 카운터와 settlement_completed 는 DB 의 조건부 UPDATE 가 판단하므로 캐시에 든 값은 보지 않는다.
+// 비용 자체를 다시 쓰면 invalidate 로 커밋 이후에 해당 항목을 비운다.
+// Expense 는 getter 만 있어 호출자가 캐시에 든 인스턴스를 바꿀 수 없으므로 그대로 돌려준다.
+// 적중/실패/축출 수는 Micrometer 의 cache.* 미터(cache=expense 태그)로 올린다.
+@Slf4j
+@Component
+public class ExpenseCache {
+    private final ExpenseMapper expenseMapper;
+    private final boolean enabled;
+    private final Cache<Long, Expense> cache;
+
+    public ExpenseCache(ExpenseMapper expenseMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${settlement.expense-cache.enabled:true}") boolean enabled,
+                        @Value("${settlement.expense-cache.max-size:10000}") long maxSize,
+                        @Value("${settlement.expense-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.expenseMapper = expenseMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "expense");
+    }
+
+    // 없는 비용(null)은 캐시하지 않는다.
+    public Expense searchByExpenseId(Long expenseId) {
+        if (!enabled || expenseId == null) {
+            return expenseMapper.searchByExpenseId(expenseId);
+        }
+        return cache.get(expenseId, expenseMapper::searchByExpenseId);
+    }
+
+    public void invalidate(Long expenseId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 커밋 전에 비우면 다른 요청이 이전 값을 다시 읽어 채울 수 있다.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(expenseId);
+                }
+            });
+        } else {
+            cache.invalidate(expenseId);
+        }
+    }
+
+    public ExpenseCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return ExpenseCacheStats.builder()
+                .enabled(enabled)
+                .size(cache.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .evictions(stats.evictionCount())
+                .hitRate(stats.hitRate())
+                .build();
+    }
+}
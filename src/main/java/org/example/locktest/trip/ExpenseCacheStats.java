@@ -0,0 +1,15 @@
+package org.example.locktest.trip;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ExpenseCacheStats {
+    private boolean enabled;
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
@@ -0,0 +1,26 @@
+package org.example.locktest.trip;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.locktest.Location;
+import org.example.locktest.money.Money;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// memberId 는 결제한 회원, memberIds 는 비용을 나눌 참여 회원이다. 결제자는 참여 회원에 들어 있지 않아도 된다.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseCreateRequestDto {
+    private Long tripId;
+    private Long memberId;
+    private String expenseName;
+    private Money amount;
+    private Location location;
+    private LocalDateTime expenseDate;
+    private List<Long> memberIds;
+}
@@ -0,0 +1,16 @@
+package org.example.locktest.trip;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.example.locktest.money.Money;
+
+import java.util.Map;
+
+@Getter
+@Builder
+public class ExpenseCreateResult {
+    private Long expenseId;
+    private Long tripId;
+    private int unpaidCount;
+    private Map<Long, Money> shares;
+}
@@ -5,6 +5,12 @@ import org.apache.ibatis.annotations.Param;
 
 @Mapper
 public interface ExpenseMapper {
+    int insert(Expense expense);
+
+    // expense_id 를 채워서 넘긴다. 대량 적재는 BATCH 실행기로 이 문장을 모아 보낸다.
+    int insertWithId(Expense expense);
+
     Expense searchByExpenseId(@Param("expenseId") Long expenseId);
     void updateSettlementCompleted(@Param("expenseId")Long expenseId, @Param("completed") boolean completed);
+    int decrementUnpaidCount(@Param("expenseId") Long expenseId, @Param("count") int count);
 }
@@ -0,0 +1,111 @@
+package org.example.locktest.trip;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+// 비용 등록. 분담액은 서버에서 나누고, 비용 한 행과 참여 회원별 정산 내역을 한 트랜잭션에서 넣는다.
+// INSERT 는 MyBatis BATCH 실행기로 JDBC 배치에 모아 보내므로 참여 회원 수와 상관없이 왕복은 두 번이다.
+// 비용 행은 생성된 expense_id 를 받아야 내역에 넣을 수 있어 먼저 따로 보내고, 내역은 배치 한 번으로 보낸다.
+// 내역 배치가 MySQL 에서 다중 행 INSERT 한 문장이 되는 것은 rewriteBatchedStatements=true(settlement-defaults) 덕분이다.
+// <foreach> 다중 행 INSERT(SettlementMapper.insertNotes)와의 비교는 ExpenseCreateBenchmark 의 multiRow 로 잰다.
+@Slf4j
+@Service
+public class ExpenseService {
+    private final SqlSessionTemplate batchSession;
+    private final ExpenseMapper expenseMapper;
+    private final SettlementMapper settlementMapper;
+    private final int maxMembers;
+
+    public ExpenseService(SqlSessionFactory sqlSessionFactory,
+                          @Value("${settlement.expense.max-members:100}") int maxMembers) {
+        // 트랜잭션에 묶인 BATCH 세션이다. 주입받은 매퍼는 SIMPLE 실행기 세션을 쓰므로, 이 트랜잭션 안에서 함께 부르면
+        // 실행기 종류가 달라 TransientDataAccessResourceException 이 난다. create 에서는 이 세션의 매퍼만 쓴다.
+        this.batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        this.expenseMapper = batchSession.getMapper(ExpenseMapper.class);
+        this.settlementMapper = batchSession.getMapper(SettlementMapper.class);
+        this.maxMembers = maxMembers;
+    }
+
+    @Transactional
+    public ExpenseCreateResult create(ExpenseCreateRequestDto dto) {
+        log.info("createExpense 메서드 호출 시작: {}", dto);
+        validate(dto);
+        Long payerId = dto.getMemberId();
+        List<Long> memberIds = dto.getMemberIds();
+        Map<Long, Money> shares = ShareSplitter.split(dto.getAmount(), memberIds, payerId);
+        int unpaidCount = (int) memberIds.stream().filter(memberId -> !memberId.equals(payerId)).count();
+
+        Expense expense = Expense.builder()
+                .tripId(dto.getTripId())
+                .memberId(payerId)
+                .expenseName(dto.getExpenseName())
+                .amount(dto.getAmount())
+                .location(dto.getLocation())
+                .settlementCompleted(unpaidCount == 0)
+                .unpaidCount(unpaidCount)
+                .expenseDate(dto.getExpenseDate())
+                .build();
+        expenseMapper.insert(expense);
+        // 첫 번째 왕복. 배치를 보내야 useGeneratedKeys 로 expenseId 가 채워진다.
+        batchSession.flushStatements();
+
+        // 결제자 자신의 몫은 이미 낸 것으로 넣는다.
+        List<SettlementNotes> notes = new ArrayList<>(shares.size());
+        for (Map.Entry<Long, Money> share : shares.entrySet()) {
+            notes.add(SettlementNotes.builder()
+                    .expenseId(expense.getExpenseId())
+                    .tripId(dto.getTripId())
+                    .memberId(share.getKey())
+                    .shareAmount(share.getValue())
+                    .isPayed(share.getKey().equals(payerId))
+                    .received(false)
+                    .build());
+        }
+        for (SettlementNotes note : notes) {
+            settlementMapper.insert(note);
+        }
+        // 두 번째 왕복. 커밋 전에 보내서 실패를 이 메서드 안에서 드러낸다.
+        batchSession.flushStatements();
+
+        log.info("createExpense 메서드 완료: expenseId={}, members={}, unpaidCount={}", expense.getExpenseId(), notes.size(), unpaidCount);
+        return ExpenseCreateResult.builder()
+                .expenseId(expense.getExpenseId())
+                .tripId(dto.getTripId())
+                .unpaidCount(unpaidCount)
+                .shares(shares)
+                .build();
+    }
+
+    private void validate(ExpenseCreateRequestDto dto) {
+        if (dto.getTripId() == null || dto.getMemberId() == null) {
+            throw new BusinessException(StatusCode.BAD_REQUEST, "여행과 결제한 회원을 지정해주세요.");
+        }
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
+            log.warn("createExpense 실패: 금액이 유효하지 않습니다. amount={}", dto.getAmount());
+            throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
+        }
+        List<Long> memberIds = dto.getMemberIds();
+        if (memberIds == null || memberIds.isEmpty() || memberIds.size() > maxMembers) {
+            throw new BusinessException(StatusCode.BAD_REQUEST, "참여 회원은 1명 이상 " + maxMembers + "명 이하여야 합니다.");
+        }
+        if (memberIds.contains(null) || new HashSet<>(memberIds).size() != memberIds.size()) {
+            throw new BusinessException(StatusCode.BAD_REQUEST, "참여 회원 목록을 확인해주세요.");
+        }
+        if (dto.getAmount().minorUnits() < memberIds.size()) {
+            throw new BusinessException(StatusCode.BAD_REQUEST, "금액이 참여 회원 수보다 작아 나눌 수 없습니다.");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// 정산 내역 키셋 페이지의 위치. 마지막으로 내려준 행의 (created_at, settlement_id) 를 불투명한 토큰으로 감싼다.
+public record HistoryCursor(LocalDateTime createdAt, Long settlementId) {
+
+    public static HistoryCursor of(SettlementNotes note) {
+        return new HistoryCursor(note.getCreatedAt(), note.getSettlementId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + settlementId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException(StatusCode.BAD_REQUEST, "잘못된 페이지 커서입니다.");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.locktest.trip;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class IdempotencyStats {
+    private long size;
+    private long completedHits;
+    private long inFlightJoins;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
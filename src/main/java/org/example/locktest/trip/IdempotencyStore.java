@@ -0,0 +1,101 @@
+package org.example.locktest.trip;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Idempotency-Key 별 처리 결과 저장소.
+// 처리 중인 키로 다시 들어온 요청은 진행 중인 결과를 기다리고, 완료된 키는 DB 를 거치지 않고 저장된 결과를 돌려준다.
+@Slf4j
+@Component
+public class IdempotencyStore {
+    private final Cache<String, Entry> cache;
+    private final LongAdder completedHits = new LongAdder();
+    private final LongAdder inFlightJoins = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyStore(@Value("${settlement.idempotency.max-size:10000}") long maxSize,
+                            @Value("${settlement.idempotency.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object request, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String fingerprint = Objects.toString(request);
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = cache.asMap().putIfAbsent(key, created);
+
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                log.warn("idempotency: 같은 키로 다른 요청이 들어왔습니다. key={}", key);
+                throw new BusinessException(StatusCode.DUPLICATE_REQUEST, "이미 다른 요청에 사용된 Idempotency-Key 입니다.");
+            }
+            if (existing.result().isDone()) {
+                completedHits.increment();
+            } else {
+                inFlightJoins.increment();
+            }
+            log.info("idempotency: 중복 요청을 기존 결과로 응답합니다. key={}", key);
+            try {
+                return (T) existing.result().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        misses.increment();
+        try {
+            T result = action.get();
+            created.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // 실패한 요청은 저장하지 않는다. 기다리던 중복 요청에는 같은 예외를 전달하고, 이후 재시도는 새로 처리한다.
+            cache.asMap().remove(key, created);
+            created.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public IdempotencyStats stats() {
+        long hits = completedHits.sum() + inFlightJoins.sum();
+        long total = hits + misses.sum();
+        return IdempotencyStats.builder()
+                .size(cache.estimatedSize())
+                .completedHits(completedHits.sum())
+                .inFlightJoins(inFlightJoins.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .hitRate(total == 0 ? 0 : (double) hits / total)
+                .build();
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Object> result) {
+    }
+}
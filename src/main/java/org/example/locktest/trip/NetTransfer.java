@@ -0,0 +1,6 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.money.Money;
+
+public record NetTransfer(Long fromMemberId, Long toMemberId, Money amount) {
+}
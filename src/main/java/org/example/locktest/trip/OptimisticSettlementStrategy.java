@@ -0,0 +1,20 @@
+package org.example.locktest.trip;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OptimisticSettlementStrategy implements SettlementStrategy {
+    private final SettlementService settlementService;
+
+    @Override
+    public String name() {
+        return "OPTIMISTIC";
+    }
+
+    @Override
+    public int settle(SettlementRequestDto dto) {
+        return settlementService.settle2(dto);
+    }
+}
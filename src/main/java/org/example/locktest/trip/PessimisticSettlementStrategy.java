@@ -0,0 +1,21 @@
+package org.example.locktest.trip;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class PessimisticSettlementStrategy implements SettlementStrategy {
+    private final SettlementService settlementService;
+
+    @Override
+    public String name() {
+        return "PESSIMISTIC";
+    }
+
+    // 대부분의 충돌은 DB 잠금 대기로 흡수되고, 잠금 대기 시간 초과나 데드락으로 다시 시도한 횟수만 충돌로 보고한다.
+    @Override
+    public int settle(SettlementRequestDto dto) {
+        return settlementService.settleCountingRetries(dto);
+    }
+}
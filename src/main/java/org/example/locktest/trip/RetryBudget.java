@@ -0,0 +1,27 @@
+package org.example.locktest.trip;
+
+// 초당 재시도 허용량. 토큰 버킷으로 채우고, 비어 있으면 재시도하지 않고 실패시킨다.
+public class RetryBudget {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public RetryBudget(int retriesPerSecond) {
+        this.capacity = retriesPerSecond;
+        this.tokensPerNano = retriesPerSecond / 1_000_000_000.0;
+        this.tokens = retriesPerSecond;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
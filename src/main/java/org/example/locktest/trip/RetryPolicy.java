@@ -0,0 +1,55 @@
+package org.example.locktest.trip;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// 락 충돌 후 다음 시도까지의 대기 시간 정책
+public interface RetryPolicy {
+    enum Type { LINEAR, EXPONENTIAL, DECORRELATED_JITTER }
+
+    int maxAttempts();
+
+    // retryCount 는 0부터 시작한다. previousDelayMs 는 직전 대기 시간(첫 재시도는 0).
+    long nextDelayMs(int retryCount, long previousDelayMs);
+
+    static RetryPolicy of(SettlementRetryProperties properties) {
+        int maxAttempts = properties.getMaxAttempts();
+        long base = properties.getBaseDelayMs();
+        long cap = properties.getMaxDelayMs();
+        return switch (properties.getPolicy()) {
+            case LINEAR -> new Linear(maxAttempts, base, cap);
+            case EXPONENTIAL -> new Exponential(maxAttempts, base, cap);
+            case DECORRELATED_JITTER -> new DecorrelatedJitter(maxAttempts, base, cap);
+        };
+    }
+
+    // 기존 settle/settle2 방식: base * (n + 1) 에 최대 50% 랜덤을 더한다.
+    record Linear(int maxAttempts, long baseDelayMs, long maxDelayMs) implements RetryPolicy {
+        @Override
+        public long nextDelayMs(int retryCount, long previousDelayMs) {
+            long delay = baseDelayMs * (retryCount + 1);
+            delay += ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+            return Math.min(maxDelayMs, delay);
+        }
+    }
+
+    // base * 2^n 을 상한으로 두고 그 안에서 균등 분포로 고른다 (full jitter).
+    record Exponential(int maxAttempts, long baseDelayMs, long maxDelayMs) implements RetryPolicy {
+        @Override
+        public long nextDelayMs(int retryCount, long previousDelayMs) {
+            long ceiling = baseDelayMs << Math.min(retryCount, 30);
+            if (ceiling <= 0 || ceiling > maxDelayMs) {
+                ceiling = maxDelayMs;
+            }
+            return ThreadLocalRandom.current().nextLong(ceiling + 1);
+        }
+    }
+
+    // min(cap, random(base, previous * 3)). 대기 시간이 서로 엇갈려서 동시에 다시 몰리지 않는다.
+    record DecorrelatedJitter(int maxAttempts, long baseDelayMs, long maxDelayMs) implements RetryPolicy {
+        @Override
+        public long nextDelayMs(int retryCount, long previousDelayMs) {
+            long upper = Math.max(baseDelayMs, previousDelayMs * 3);
+            return Math.min(maxDelayMs, ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1));
+        }
+    }
+}
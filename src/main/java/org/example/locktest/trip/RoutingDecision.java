@@ -0,0 +1,22 @@
+package org.example.locktest.trip;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder(toBuilder = true)
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingDecision {
+    private Long expenseId;
+    private Long memberId;
+    private String strategy;
+    private boolean pessimistic;
+    private String reason;
+    private int retries;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime decidedAt;
+}
@@ -0,0 +1,20 @@
+package org.example.locktest.trip;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class RoutingSnapshot {
+    private int trackedKeys;
+    private long hotRequestThreshold;
+    private double hotConflictRatio;
+    private long windowMillis;
+    private List<KeyStat> hotKeys;
+    private List<RoutingDecision> recentDecisions;
+
+    public record KeyStat(String key, long requests, long conflicts) {
+    }
+}
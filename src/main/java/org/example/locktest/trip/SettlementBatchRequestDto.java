@@ -0,0 +1,18 @@
+package org.example.locktest.trip;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// settlements 가 비어 있으면 expenseId 의 미정산 내역 전체를 share_amount 로 정산한다.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementBatchRequestDto {
+    private Long expenseId;
+    private List<SettlementRequestDto> settlements;
+}
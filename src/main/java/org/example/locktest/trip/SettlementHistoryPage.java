@@ -0,0 +1,15 @@
+package org.example.locktest.trip;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+// nextCursor 가 null 이면 마지막 페이지다.
+@Getter
+@Builder
+public class SettlementHistoryPage {
+    private List<SettlementNotes> items;
+    private int size;
+    private String nextCursor;
+}
@@ -0,0 +1,87 @@
+package org.example.locktest.trip;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// 정산 내역 조회. 페이지는 OFFSET 대신 (created_at, settlement_id) 키셋으로 넘기고,
+// 전체 내보내기는 MyBatis Cursor 로 한 행씩 읽어 NDJSON 으로 바로 써서 내역 길이와 상관없이 메모리를 일정하게 쓴다.
+@Slf4j
+@Service
+public class SettlementHistoryService {
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final SettlementMapper settlementMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int flushEvery;
+
+    public SettlementHistoryService(SettlementMapper settlementMapper,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${settlement.history.default-page-size:20}") int defaultPageSize,
+                                    @Value("${settlement.history.max-page-size:100}") int maxPageSize,
+                                    @Value("${settlement.history.export-flush-every:500}") int flushEvery) {
+        this.settlementMapper = settlementMapper;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.flushEvery = flushEvery;
+    }
+
+    @Transactional(readOnly = true)
+    public SettlementHistoryPage page(Long memberId, Long tripId, String cursorToken, Integer size) {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize <= 0 || pageSize > maxPageSize) {
+            throw new BusinessException(StatusCode.BAD_REQUEST, "페이지 크기는 1 이상 " + maxPageSize + " 이하여야 합니다.");
+        }
+        HistoryCursor cursor = HistoryCursor.decode(cursorToken);
+        // 한 행 더 읽어서 다음 페이지가 있는지 판단한다.
+        List<SettlementNotes> rows = settlementMapper.searchByMemberIdAndTripId(memberId, tripId, cursor, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<SettlementNotes> items = hasNext ? rows.subList(0, pageSize) : rows;
+        return SettlementHistoryPage.builder()
+                .items(items)
+                .size(items.size())
+                .nextCursor(hasNext ? HistoryCursor.of(items.get(items.size() - 1)).encode() : null)
+                .build();
+    }
+
+    // Cursor 는 커넥션이 열려 있는 동안만 읽을 수 있으므로 읽기 전용 트랜잭션 안에서 끝까지 쓴다.
+    public long export(Long tripId, OutputStream out) {
+        Long written = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Cursor<SettlementNotes> cursor = settlementMapper.streamByTripId(tripId)) {
+                for (SettlementNotes note : cursor) {
+                    out.write(objectMapper.writeValueAsBytes(note));
+                    out.write(NEW_LINE);
+                    if (++count % flushEvery == 0) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+        log.info("settlement export 완료: tripId={}, rows={}", tripId, written);
+        return written == null ? 0 : written;
+    }
+}
@@ -2,13 +2,60 @@ package org.example.locktest.trip;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.locktest.datasource.ReplicaRead;
+import org.example.locktest.money.Money;
 
 import java.util.List;
 
 @Mapper
 public interface SettlementMapper {
-    void updateIsPayedByExpenseIdAndMemberID(
+    int insert(SettlementNotes note);
+
+    // 다중 행 INSERT. settlement_id 는 DB 가 채운다.
+    int insertNotes(@Param("notes") List<SettlementNotes> notes);
+
+    int updateIsPayedByExpenseIdAndMemberID(
             @Param("expenseId")Long expenseId,
             @Param("senderId")Long senderId);
+
+    // 아래 @ReplicaRead 조회는 내역 보기 전용이다. 정산 경로는 이 문장들을 부르지 않으므로 복제본의 늦은 값을 읽어도 된다.
+    @ReplicaRead
     List<SettlementNotes> searchByExpenseId(Long expenseId);
+
+    List<SettlementNotes> searchUnpaidByExpenseId(@Param("expenseId") Long expenseId);
+    int updateIsPayedByExpenseIdAndMemberIds(
+            @Param("expenseId") Long expenseId,
+            @Param("memberIds") List<Long> memberIds);
+
+    @ReplicaRead
+    List<SettlementNotes> searchByMemberIdAndTripId(
+            @Param("memberId") Long memberId,
+            @Param("tripId") Long tripId,
+            @Param("cursor") HistoryCursor cursor,
+            @Param("limit") int limit);
+
+    @ReplicaRead
+    Cursor<SettlementNotes> streamByTripId(@Param("tripId") Long tripId);
+
+    List<TripDebt> searchUnpaidDebtsByTripId(@Param("tripId") Long tripId);
+
+    List<TripDebt> searchUnpaidDebtsByTripIdForUpdate(@Param("tripId") Long tripId);
+
+    int updateIsPayedBySettlementIds(@Param("settlementIds") List<Long> settlementIds);
+
+    // settle 의 잠금 전 검증에 쓴다. 내역이 없으면 요청을 거절하므로 복제본이 아니라 주 DB 에서 읽는다.
+    // 미지불로 본 뒤 다른 요청이 먼저 지불한 경우는 잠근 구간의 조건부 갱신이 막는다.
+    SettlementNotes searchByMemberIdAndExpenseId(
+            @Param("expenseId") Long expenseId,
+            @Param("memberId") Long memberId);
+
+    // 이체, 정산 내역 표시, 완료 판정을 한 번의 왕복(multi-statement)으로 처리한다. allowMultiQueries 가 필요하다.
+    ConditionalSettlementResult settleConditionally(
+            @Param("expenseId") Long expenseId,
+            @Param("senderId") Long senderId,
+            @Param("receiverId") Long receiverId,
+            @Param("amount") Money amount,
+            @Param("receiverFirst") boolean receiverFirst,
+            @Param("shardSlot") Integer shardSlot);
 }
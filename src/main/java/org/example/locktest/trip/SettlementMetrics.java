@@ -0,0 +1,132 @@
+package org.example.locktest.trip;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.locktest.BusinessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// 정산 단계별 소요 시간과 충돌/재시도 지표.
+//   settlement.phase{strategy, phase, outcome}        단계별 타이머
+//   settlement.conflicts{strategy, type}              잠금 실패(lock)와 버전 충돌(version) 건수
+//   settlement.retries{operation, outcome}            요청 하나가 끝날 때까지의 재시도 횟수
+//   settlement.retry.rejected{operation, reason}      회로 차단, 예산 소진, 최대 횟수 초과로 포기한 건수
+//   settlement.lock.hold{strategy, outcome}           계좌 행을 잠근 뒤 트랜잭션이 끝나 잠금이 풀릴 때까지의 시간
+@Component
+public class SettlementMetrics {
+    public static final String SUCCESS = "success";
+    public static final String LOCK_FAILURE = "lock_failure";
+    public static final String VERSION_CONFLICT = "version_conflict";
+    public static final String REJECTED = "rejected";
+    public static final String ERROR = "error";
+
+    public enum Phase {
+        EXPENSE_READ,
+        LOCK_ACQUIRE,
+        ACCOUNT_READ,
+        BALANCE_UPDATE,
+        NOTE_UPDATE,
+        COMPLETION_CHECK;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    private final MeterRegistry registry;
+
+    public SettlementMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T record(String strategy, Phase phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            T result = action.get();
+            outcome = SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            Timer.builder("settlement.phase")
+                    .tag("strategy", strategy)
+                    .tag("phase", phase.tag)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (LOCK_FAILURE.equals(outcome) || VERSION_CONFLICT.equals(outcome)) {
+                conflict(strategy, outcome);
+            }
+        }
+    }
+
+    public void record(String strategy, Phase phase, Runnable action) {
+        record(strategy, phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void retries(String operation, String outcome, int retryCount) {
+        DistributionSummary.builder("settlement.retries")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(retryCount);
+    }
+
+    public void rejected(String operation, String reason) {
+        Counter.builder("settlement.retry.rejected")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    // 행 잠금은 커밋이나 롤백 때 풀리므로, 잠금을 잡은 직후 호출하면 트랜잭션이 끝나는 시점에 보유 시간을 남긴다.
+    public void lockAcquired(String strategy) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long start = System.nanoTime();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                Timer.builder("settlement.lock.hold")
+                        .tag("strategy", strategy)
+                        .tag("outcome", status == STATUS_COMMITTED ? "committed" : "rolled_back")
+                        .register(registry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private void conflict(String strategy, String type) {
+        Counter.builder("settlement.conflicts")
+                .tag("strategy", strategy)
+                .tag("type", LOCK_FAILURE.equals(type) ? "lock" : "version")
+                .register(registry)
+                .increment();
+    }
+
+    public static String outcomeOf(RuntimeException e) {
+        if (e instanceof PessimisticLockingFailureException) {
+            return LOCK_FAILURE;
+        }
+        if (e instanceof OptimisticLockingFailureException) {
+            return VERSION_CONFLICT;
+        }
+        if (e instanceof BusinessException) {
+            return REJECTED;
+        }
+        return ERROR;
+    }
+}
@@ -1,8 +1,8 @@
 package org.example.locktest.trip;
 
 import lombok.*;
+import org.example.locktest.money.Money;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter
@@ -16,7 +16,7 @@ public class SettlementNotes {
     private Long expenseId;
     private Long tripId;
     private Long memberId;
-    private BigDecimal shareAmount;
+    private Money shareAmount;
     private Boolean received;
     private Boolean isPayed;
     private LocalDateTime createdAt;
@@ -0,0 +1,231 @@
+package org.example.locktest.trip;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 비동기 정산 큐. 수취인 계좌 기준으로 워커를 나눠 같은 수취 계좌는 한 스레드만 쓰게 하고,
+// 워커는 쌓인 요청을 한 트랜잭션에 묶어 커밋한다(group commit). 요청별 업무 실패는 savepoint 로 격리한다.
+// 송금인은 여러 파티션에 걸칠 수 있어 파티션끼리도 잠금이 겹친다. 잠금 대기에 걸린 요청은 그룹에서 빼서,
+// 데드락으로 그룹 트랜잭션이 통째로 되돌려지면 그룹 전체를 한 건씩 SettlementRetryer 로 재시도하며 다시 처리한다.
+@Slf4j
+@Component
+public class SettlementQueue {
+    private static final long POLL_INTERVAL_MS = 200;
+    private static final String SERVER_ERROR = "정산 처리 중 서버 오류가 발생했습니다.";
+
+    private final SettlementService settlementService;
+    private final ExpenseCache expenseCache;
+    private final SettlementRetryer settlementRetryer;
+    private final TransactionTemplate groupTransaction;
+    private final TransactionTemplate itemTransaction;
+    private final TransactionTemplate singleTransaction;
+    private final int workerCount;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final long ticketTtlSeconds;
+    private final long shutdownTimeoutMs;
+
+    private final Map<String, SettlementTicket> tickets = new ConcurrentHashMap<>();
+    private final List<BlockingQueue<Task>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public SettlementQueue(SettlementService settlementService,
+                           ExpenseCache expenseCache,
+                           SettlementRetryer settlementRetryer,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${settlement.async.workers:8}") int workerCount,
+                           @Value("${settlement.async.batch-size:32}") int batchSize,
+                           @Value("${settlement.async.queue-capacity:10000}") int queueCapacity,
+                           @Value("${settlement.async.ticket-ttl-seconds:600}") long ticketTtlSeconds,
+                           @Value("${settlement.async.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.settlementService = settlementService;
+        this.expenseCache = expenseCache;
+        this.settlementRetryer = settlementRetryer;
+        this.groupTransaction = new TransactionTemplate(transactionManager);
+        this.itemTransaction = new TransactionTemplate(transactionManager);
+        this.itemTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.singleTransaction = new TransactionTemplate(transactionManager);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.ticketTtlSeconds = ticketTtlSeconds;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<Task> queue = new LinkedBlockingQueue<>(queueCapacity);
+            Thread worker = new Thread(() -> runWorker(queue), "settlement-worker-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    // 워커는 처리 중인 그룹까지만 끝내고 멈춘다. 제한 시간 안에 멈추지 않으면 인터럽트하고,
+    // 큐에 남은 요청은 처리하지 않은 채 실패로 끝내서 접수증이 PENDING 으로 남지 않게 한다.
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            if (worker.isAlive()) {
+                log.warn("settleAsync: 종료 제한 시간 안에 워커가 멈추지 않아 인터럽트합니다. worker={}", worker.getName());
+                worker.interrupt();
+            }
+        }
+        int dropped = 0;
+        for (BlockingQueue<Task> queue : queues) {
+            List<Task> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            pending.forEach(task -> task.ticket.fail("서버가 종료되어 정산을 처리하지 못했습니다. 다시 요청해주세요."));
+            dropped += pending.size();
+        }
+        if (dropped > 0) {
+            log.warn("settleAsync: 종료로 처리하지 못한 요청 {}건을 실패 처리했습니다.", dropped);
+        }
+    }
+
+    public SettlementTicket submit(SettlementRequestDto dto) {
+        if (!running) {
+            throw new BusinessException(StatusCode.SERVICE_UNAVAILABLE, "서버가 종료 중이라 정산을 접수하지 못했습니다.");
+        }
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
+            log.warn("settleAsync 실패: 금액이 유효하지 않습니다. amount={}", dto.getAmount());
+            throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
+        }
+        Expense expense = expenseCache.searchByExpenseId(dto.getExpenseId());
+        if (expense == null) {
+            log.warn("settleAsync 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", dto.getExpenseId());
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
+        }
+
+        SettlementTicket ticket = new SettlementTicket(UUID.randomUUID().toString(), dto.getExpenseId(), dto.getMemberId());
+        int partition = Math.floorMod(expense.getMemberId().hashCode(), workerCount);
+        tickets.put(ticket.getTicketId(), ticket);
+        if (!queues.get(partition).offer(new Task(dto, expense, ticket))) {
+            tickets.remove(ticket.getTicketId());
+            log.warn("settleAsync 실패: 정산 큐가 가득 찼습니다. partition={}", partition);
+            throw new BusinessException(StatusCode.SERVICE_UNAVAILABLE, "요청이 많아 정산을 접수하지 못했습니다. 잠시 후 다시 시도해주세요.");
+        }
+        log.info("settleAsync: 정산 접수 완료. ticketId={}, partition={}", ticket.getTicketId(), partition);
+        return ticket;
+    }
+
+    public SettlementTicket status(String ticketId) {
+        SettlementTicket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new BusinessException(StatusCode.NOT_FOUND, "정산 접수 내역을 찾을 수 없습니다.");
+        }
+        return ticket;
+    }
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void evictExpiredTickets() {
+        LocalDateTime threshold = LocalDateTime.now().minusSeconds(ticketTtlSeconds);
+        tickets.values().removeIf(t -> t.getCompletedAt() != null && t.getCompletedAt().isBefore(threshold));
+    }
+
+    private void runWorker(BlockingQueue<Task> queue) {
+        List<Task> group = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Task first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, batchSize - 1);
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                group.stream().filter(SettlementQueue::isPending).forEach(task -> task.ticket.fail(SERVER_ERROR));
+                return;
+            } catch (RuntimeException e) {
+                log.error("settleAsync: 워커 처리 중 예기치 못한 오류 - {}", e.getMessage(), e);
+                group.stream().filter(SettlementQueue::isPending).forEach(task -> task.ticket.fail(SERVER_ERROR));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    // 업무 실패와 완료는 그룹이 커밋된 뒤에 접수증에 반영한다. 그룹이 되돌려지면 앞선 요청의 결과도 사라지므로
+    // 그룹 전체를 한 건씩 다시 처리한다. 잠금 대기에 걸린 요청은 savepoint 로 되돌리고 그룹이 끝난 뒤 따로 처리한다.
+    private void commitGroup(List<Task> group) {
+        List<Task> succeeded = new ArrayList<>(group.size());
+        List<Task> deferred = new ArrayList<>();
+        Map<Task, String> rejected = new LinkedHashMap<>();
+        try {
+            groupTransaction.executeWithoutResult(status -> {
+                for (Task task : group) {
+                    try {
+                        itemTransaction.executeWithoutResult(s -> settlementService.settleWithRowLocks(task.dto, task.expense, "async", 0));
+                        succeeded.add(task);
+                    } catch (BusinessException e) {
+                        rejected.put(task, e.getMessage());
+                    } catch (PessimisticLockingFailureException e) {
+                        deferred.add(task);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // 데드락은 savepoint 까지 지우고 트랜잭션 전체를 되돌린다. 이 그룹에서 반영된 것은 없다.
+            log.warn("settleAsync: 그룹 트랜잭션이 되돌려졌습니다. {}건을 개별 처리합니다. - {}", group.size(), e.getMessage());
+            group.forEach(this::commitSingle);
+            return;
+        }
+        succeeded.forEach(task -> task.ticket.complete());
+        rejected.forEach((task, message) -> task.ticket.fail(message));
+        log.info("settleAsync: {}건 그룹 커밋 완료 ({}건 실패, {}건 개별 처리).", succeeded.size(), rejected.size(), deferred.size());
+        deferred.forEach(this::commitSingle);
+    }
+
+    // 한 건씩 처리할 때는 잠금 충돌을 다른 동기 경로와 같은 재시도 정책으로 다시 시도한다.
+    private void commitSingle(Task task) {
+        try {
+            settlementRetryer.execute("async", SettlementRetryer.keysOf(task.dto, task.expense.getMemberId()), PessimisticLockingFailureException.class,
+                    retryCount -> singleTransaction.execute(s -> settlementService.settleWithRowLocks(task.dto, task.expense, "async", retryCount)));
+            task.ticket.complete();
+        } catch (BusinessException e) {
+            task.ticket.fail(e.getMessage());
+        } catch (DataAccessException e) {
+            log.error("settleAsync 실패: 개별 처리 중 DB 오류 발생. ticketId={} - {}", task.ticket.getTicketId(), e.getMessage(), e);
+            task.ticket.fail(SERVER_ERROR);
+        }
+    }
+
+    private static boolean isPending(Task task) {
+        return task.ticket.getStatus() == SettlementTicket.Status.PENDING;
+    }
+
+    private record Task(SettlementRequestDto dto, Expense expense, SettlementTicket ticket) {
+    }
+}
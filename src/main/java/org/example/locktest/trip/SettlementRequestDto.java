@@ -4,8 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
+import org.example.locktest.money.Money;
 
 @Data
 @Builder
@@ -14,5 +13,5 @@ import java.math.BigDecimal;
 public class SettlementRequestDto {
     private Long memberId;
     private Long expenseId;
-    private BigDecimal amount;
+    private Money amount;
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package org.example.locktest.trip;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// settlement.retry.* 설정. 기본값은 기존 재시도 한도(50회)를 유지하되 decorrelated jitter 대기(직전 대기의 3배 안에서 무작위)를 쓴다.
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "settlement.retry")
+public class SettlementRetryProperties {
+    private RetryPolicy.Type policy = RetryPolicy.Type.DECORRELATED_JITTER;
+    private int maxAttempts = 50;
+    private long baseDelayMs = 50;
+    private long maxDelayMs = 2000;
+
+    // 인스턴스 전체에서 1초에 허용하는 재시도 횟수
+    private int budgetPerSecond = 100;
+
+    private Breaker breaker = new Breaker();
+
+    @Getter
+    @Setter
+    public static class Breaker {
+        private boolean enabled = true;
+        private int windowSeconds = 10;
+        private int minRequests = 20;
+        private double conflictRatio = 0.5;
+        private long openMillis = 5000;
+    }
+}
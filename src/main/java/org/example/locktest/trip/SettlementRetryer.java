@@ -0,0 +1,140 @@
+package org.example.locktest.trip;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.trip.jfr.RetryBackoffEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+// 정산 재시도 공통 처리: 대기 정책, 인스턴스 전체 재시도 예산, 키별 회로 차단기.
+@Slf4j
+@Component
+public class SettlementRetryer {
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
+    private final ConflictCircuitBreaker breaker;
+    private final boolean breakerEnabled;
+    private final SettlementMetrics metrics;
+
+    public SettlementRetryer(SettlementRetryProperties properties, SettlementMetrics metrics) {
+        this.policy = RetryPolicy.of(properties);
+        this.budget = new RetryBudget(properties.getBudgetPerSecond());
+        this.breaker = new ConflictCircuitBreaker(properties.getBreaker());
+        this.breakerEnabled = properties.getBreaker().isEnabled();
+        this.metrics = metrics;
+    }
+
+    // 회로 차단기 키. 인기 수취인에게 몰리는 충돌은 수취 계좌 행에서 나므로 송금 계좌와 함께 수취 계좌도 넣는다.
+    // 송금 계좌를 맨 앞에 둔다(JFR 이벤트는 첫 account 키를 송금인으로 기록한다). 수취인을 모르면 뺀다.
+    public static List<String> keysOf(SettlementRequestDto dto, Long receiverId) {
+        if (receiverId == null) {
+            return List.of("account:" + dto.getMemberId(), "expense:" + dto.getExpenseId());
+        }
+        return List.of("account:" + dto.getMemberId(), "account:" + receiverId, "expense:" + dto.getExpenseId());
+    }
+
+    // 충돌이 나면 정책에 따라 기다렸다가 다시 시도한다. attempt 에는 재시도 횟수(0부터)가 넘어간다.
+    public <T> T execute(String operation, List<String> keys, Class<? extends RuntimeException> conflictType, IntFunction<T> attempt) {
+        long delay = 0;
+        int retryCount = 0;
+        try {
+            for (; ; retryCount++) {
+                checkPermitted(operation, keys);
+                T result;
+                try {
+                    result = attempt.apply(retryCount);
+                } catch (RuntimeException e) {
+                    if (!conflictType.isInstance(e)) {
+                        throw e;
+                    }
+                    delay = onConflict(operation, keys, retryCount, delay, e);
+                    RetryBackoffEvent backoff = new RetryBackoffEvent();
+                    backoff.begin();
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(delay);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 재시도 대기 오류가 발생했습니다.");
+                    } finally {
+                        commitBackoff(backoff, operation, keys, retryCount, delay);
+                    }
+                    continue;
+                }
+                onSuccess(keys);
+                metrics.retries(operation, SettlementMetrics.SUCCESS, retryCount);
+                return result;
+            }
+        } catch (RuntimeException e) {
+            metrics.retries(operation, SettlementMetrics.outcomeOf(e), retryCount);
+            throw e;
+        }
+    }
+
+    public void checkPermitted(String operation, List<String> keys) {
+        if (!breakerEnabled) {
+            return;
+        }
+        for (String key : keys) {
+            if (breaker.isOpen(key)) {
+                log.warn("{} 실패: 충돌이 많아 회로가 열려 있습니다. key={}", operation, key);
+                metrics.rejected(operation, "breaker_open");
+                throw new BusinessException(StatusCode.SERVICE_UNAVAILABLE, "요청이 몰려 정산을 잠시 중단했습니다. 잠시 후 다시 시도해주세요.");
+            }
+        }
+    }
+
+    public void onSuccess(List<String> keys) {
+        if (breakerEnabled) {
+            keys.forEach(key -> breaker.record(key, false));
+        }
+    }
+
+    // 다음 시도까지 기다릴 시간을 돌려준다. 더 시도하면 안 되는 경우 BusinessException 을 던진다.
+    public long onConflict(String operation, List<String> keys, int retryCount, long previousDelayMs, RuntimeException cause) {
+        if (breakerEnabled) {
+            keys.forEach(key -> breaker.record(key, true));
+        }
+        log.warn("{}: 잠금 충돌 발생. 재시도 시도 중 ({} / {}).", operation, retryCount + 1, policy.maxAttempts());
+        if (retryCount >= policy.maxAttempts() - 1) {
+            log.error("{} 실패: 최대 재시도 횟수 초과. keys={}", operation, keys, cause);
+            metrics.rejected(operation, "max_attempts");
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "일시적인 서버 부하로 정산에 실패했습니다. 잠시 후 다시 시도해주세요.");
+        }
+        checkPermitted(operation, keys);
+        if (!budget.tryAcquire()) {
+            log.warn("{} 실패: 재시도 예산 소진. keys={}", operation, keys);
+            metrics.rejected(operation, "budget");
+            throw new BusinessException(StatusCode.SERVICE_UNAVAILABLE, "요청이 많아 정산을 처리하지 못했습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return policy.nextDelayMs(retryCount, previousDelayMs);
+    }
+
+    private static void commitBackoff(RetryBackoffEvent event, String operation, List<String> keys, int retryCount, long delay) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.expenseId = idOf(keys, "expense:");
+            event.senderId = idOf(keys, "account:");
+            event.attempt = retryCount;
+            event.plannedDelay = delay;
+            event.commit();
+        }
+    }
+
+    private static long idOf(List<String> keys, String prefix) {
+        for (String key : keys) {
+            if (key.startsWith(prefix)) {
+                try {
+                    return Long.parseLong(key.substring(prefix.length()));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -1,191 +1,325 @@
 package org.example.locktest.trip;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.locktest.Account.Account;
 import org.example.locktest.Account.AccountMapper;
+import org.example.locktest.Account.BalanceDelta;
+import org.example.locktest.Account.LedgerBalanceService;
+import org.example.locktest.Account.ShardedBalanceService;
 import org.example.locktest.BusinessException;
 import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.example.locktest.trip.jfr.OptimisticConflictEvent;
+import org.example.locktest.trip.jfr.SettlementEvents;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.function.BiFunction;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class SettlementService {
     private final ExpenseMapper expenseMapper;
+    private final ExpenseCache expenseCache;
     private final AccountMapper accountMapper;
     private final SettlementMapper settlementMapper;
+    private final AccountLockManager accountLockManager;
+    private final ShardedBalanceService shardedBalanceService;
+    private final LedgerBalanceService ledgerBalanceService;
+    private final TransactionTemplate transactionTemplate;
+    // 원장 모드 시도마다 여는 트랜잭션. 갭 잠금 없이 분개를 합치도록 READ COMMITTED 로 연다.
+    private final TransactionTemplate readCommittedTransaction;
+    private final SettlementRetryer settlementRetryer;
+    private final SettlementMetrics settlementMetrics;
 
-    private static final int MAX_RETRIES = 50;
-    private static final long RETRY_DELAY_MS = 200;
+    public SettlementService(ExpenseMapper expenseMapper,
+                             ExpenseCache expenseCache,
+                             AccountMapper accountMapper,
+                             SettlementMapper settlementMapper,
+                             AccountLockManager accountLockManager,
+                             ShardedBalanceService shardedBalanceService,
+                             LedgerBalanceService ledgerBalanceService,
+                             TransactionTemplate transactionTemplate,
+                             SettlementRetryer settlementRetryer,
+                             SettlementMetrics settlementMetrics) {
+        this.expenseMapper = expenseMapper;
+        this.expenseCache = expenseCache;
+        this.accountMapper = accountMapper;
+        this.settlementMapper = settlementMapper;
+        this.accountLockManager = accountLockManager;
+        this.shardedBalanceService = shardedBalanceService;
+        this.ledgerBalanceService = ledgerBalanceService;
+        this.transactionTemplate = transactionTemplate;
+        this.readCommittedTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readCommittedTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.settlementRetryer = settlementRetryer;
+        this.settlementMetrics = settlementMetrics;
+    }
 
-    @Transactional
+    // 2단계 정산. 잠금 없이 요청과 비용, 수취인, 정산 내역 상태를 먼저 확정하고,
+    // 시도마다 새 트랜잭션을 열어 계좌 잠금부터 잔액과 정산 내역 쓰기까지만 잠근 채로 처리한다.
+    // 재시도 대기에 들어갈 때는 앞선 트랜잭션이 이미 끝나 있으므로 잡고 있던 잠금이 남지 않는다.
     public boolean settle(SettlementRequestDto dto){
+        return settleLocked(dto, (settled, retryCount) -> settled);
+    }
+
+    // settle 과 같은 경로로 정산하고, settle2 처럼 잠금 충돌로 재시도한 횟수를 돌려준다. 적응형 라우터가 충돌 신호로 쓴다.
+    public int settleCountingRetries(SettlementRequestDto dto) {
+        return settleLocked(dto, (settled, retryCount) -> retryCount);
+    }
+
+    private <T> T settleLocked(SettlementRequestDto dto, BiFunction<Boolean, Integer, T> result) {
         log.info("settle 메서드 호출 시작: {}", dto);
-        if (dto.getAmount() == null || dto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            log.warn("settle 실패: 금액이 유효하지 않습니다. amount={}", dto.getAmount());
+        SettlementPlan plan = prepare(dto, "settle");
+        return settlementRetryer.execute("settle", SettlementRetryer.keysOf(dto, plan.receiverId()), PessimisticLockingFailureException.class, retryCount -> {
+            try{
+                Boolean settled = SettlementEvents.attempt("settle", dto.getExpenseId(), plan.senderId(), plan.receiverId(), retryCount,
+                        () -> transactionTemplate.execute(status -> commitLocked(plan, "settle", retryCount)));
+                return result.apply(Boolean.TRUE.equals(settled), retryCount);
+            } catch (PessimisticLockingFailureException e) {
+                log.warn("settle: 잠금 획득 실패 또는 데드락 발생. 시도 #{}", retryCount + 1);
+                throw e;
+            } catch (DataAccessException e) {
+                log.error("settle 실패: 알 수 없는 DB 오류 발생 (재시도 대상 아님) - {}", e.getMessage(), e);
+                throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 서버 오류가 발생했습니다.");
+            }
+        });
+    }
+
+    // 잠금 없이 끝나는 검증. 여기서 걸러진 요청은 계좌를 잠그지도, 재시도하지도 않는다.
+    // 정산 내역이 없거나 이미 지불했으면 거절하고, 잠근 구간에서는 조건부 갱신 건수로 그 사이의 중복 지불만 다시 확인한다.
+    private SettlementPlan prepare(SettlementRequestDto dto, String strategy) {
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
+            log.warn("{} 실패: 금액이 유효하지 않습니다. amount={}", strategy, dto.getAmount());
             throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
         }
-        for(int retryCount = 0; retryCount < MAX_RETRIES ; retryCount++){
-            try{
-                Expense expense = expenseMapper.searchByExpenseId(dto.getExpenseId());
-                if (expense == null) {
-                    log.warn("settle 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", dto.getExpenseId());
-                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
-                }
-                log.info("expenseId : {}", expense.getMemberId());
-                Long senderId = dto.getMemberId();
-                log.info("senderId : {}", senderId);
-                Long receiverId = expense.getMemberId();
-
-                Account receiverAccount;
-                Account senderAccount;
-
-                try {
-                    if (senderId.compareTo(receiverId) < 0) {
-                        senderAccount = accountMapper.searchAccountByMemberIdForUpdate(senderId);
-                        receiverAccount = accountMapper.searchAccountByMemberIdForUpdate(receiverId);
-                    } else {
-                        receiverAccount = accountMapper.searchAccountByMemberIdForUpdate(receiverId);
-                        senderAccount = accountMapper.searchAccountByMemberIdForUpdate(senderId);
-                    }
-                } catch (PessimisticLockingFailureException e) {
-                    log.warn("settle: 잠금 획득 실패 (비관적 잠금 경합). 재시도 #{}", retryCount + 1);
-                    throw e;
-                } catch (DataAccessException e) {
-                    log.error("settle 실패: 계좌 조회 및 잠금 중 DB 오류 발생 - {}", e.getMessage(), e);
-                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "연동 계좌 조회 중 서버 오류가 발생했습니다.");
-                }
+        Expense expense = settlementMetrics.record(strategy, SettlementMetrics.Phase.EXPENSE_READ,
+                () -> expenseCache.searchByExpenseId(dto.getExpenseId()));
+        if (expense == null) {
+            log.warn("{} 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", strategy, dto.getExpenseId());
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
+        }
+        Long senderId = dto.getMemberId();
+        Long receiverId = expense.getMemberId();
+        if (senderId == null || senderId.equals(receiverId)) {
+            log.warn("{} 실패: 송금인이 유효하지 않습니다. senderId={}, receiverId={}", strategy, senderId, receiverId);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "정산할 회원을 확인해주세요.");
+        }
+        checkUnpaid(dto.getExpenseId(), senderId, strategy);
+        return new SettlementPlan(dto, senderId, receiverId, shardedBalanceService.isHot(receiverId));
+    }
 
-                if (senderAccount == null || receiverAccount == null) {
-                    log.warn("settle 실패: 연동된 계좌를 찾을 수 없습니다. senderId={}, receiverId={}", senderId, receiverId);
-                    throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
-                }
+    // 정산 내역이 없으면 BAD_REQUEST, 이미 지불했으면 DUPLICATE_REQUEST 로 거절한다.
+    private void checkUnpaid(Long expenseId, Long senderId, String strategy) {
+        SettlementNotes note = settlementMapper.searchByMemberIdAndExpenseId(expenseId, senderId);
+        if (note == null) {
+            log.warn("{} 실패: 정산 대상이 아닙니다. expenseId={}, memberId={}", strategy, expenseId, senderId);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "정산 대상 회원이 아닙니다.");
+        }
+        if (Boolean.TRUE.equals(note.getIsPayed())) {
+            log.warn("{} 실패: 이미 지불한 정산입니다. expenseId={}, memberId={}", strategy, expenseId, senderId);
+            throw new BusinessException(StatusCode.DUPLICATE_REQUEST, "이미 지불한 정산입니다.");
+        }
+    }
 
-                BigDecimal amount = verificationAmount(dto, senderAccount, receiverAccount);
-                log.info("amount : {}",amount);
+    // 현재 트랜잭션 안에서 두 계좌를 FOR UPDATE 로 잠그고 이체한다. 재시도는 호출하는 쪽에서 담당한다.
+    // strategy 와 attempt(재시도 횟수)는 지표와 JFR 이벤트에만 쓴다.
+    // 큐, 가상 스레드, settle3 처럼 prepare 를 거치지 않는 경로도 잠그기 전에 정산 내역 상태를 확인한다.
+    public boolean settleWithRowLocks(SettlementRequestDto dto, Expense expense, String strategy, int attempt) {
+        log.info("expenseId : {}", expense.getMemberId());
+        log.info("senderId : {}", dto.getMemberId());
+        Long receiverId = expense.getMemberId();
+        checkUnpaid(dto.getExpenseId(), dto.getMemberId(), strategy);
+        return commitLocked(new SettlementPlan(dto, dto.getMemberId(), receiverId, shardedBalanceService.isHot(receiverId)),
+                strategy, attempt);
+    }
 
-                if (senderAccount.getBalance().subtract(amount).compareTo(BigDecimal.ZERO) < 0) {
-                    log.warn("settle 실패: 계좌 잔액 부족. senderId={}, balance={}, amount={}", senderId, senderAccount.getBalance(), amount);
-                    throw new BusinessException(StatusCode.BAD_REQUEST, "계좌 잔액을 확인해주세요.");
-                }
+    // 잠근 구간. 계좌 잠금, 잔액 확인, 이체, 정산 내역과 완료 판정만 하고 바로 커밋으로 넘긴다.
+    private boolean commitLocked(SettlementPlan plan, String strategy, int attempt) {
+        SettlementRequestDto dto = plan.dto();
+        Long senderId = plan.senderId();
+        Long receiverId = plan.receiverId();
+        Money amount = dto.getAmount();
+        boolean shardedReceiver = plan.shardedReceiver();
+        AccountPair locked;
+        try {
+            locked = settlementMetrics.record(strategy, SettlementMetrics.Phase.LOCK_ACQUIRE,
+                    () -> SettlementEvents.lock(strategy, dto.getExpenseId(), senderId, receiverId, attempt, shardedReceiver,
+                            () -> lockAccounts(senderId, receiverId, shardedReceiver, strategy)));
+        } catch (PessimisticLockingFailureException e) {
+            log.warn("settle: 잠금 획득 실패 (비관적 잠금 경합). senderId={}, receiverId={}", senderId, receiverId);
+            throw e;
+        } catch (DataAccessException e) {
+            log.error("settle 실패: 계좌 조회 및 잠금 중 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "연동 계좌 조회 중 서버 오류가 발생했습니다.");
+        }
+        Account senderAccount = locked.sender();
+        Account receiverAccount = locked.receiver();
+
+        if (senderAccount == null || receiverAccount == null) {
+            log.warn("settle 실패: 연동된 계좌를 찾을 수 없습니다. senderId={}, receiverId={}", senderId, receiverId);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
+        }
 
-                try {
+        // 금액은 잠그기 전에 검증했으므로 여기서는 잠근 잔액만 본다.
+        senderAccount = refreshIfShort(senderAccount, amount, false);
+        Money available = availableBalance(senderAccount, amount, false);
+        if (!available.isGreaterThan(amount)) {
+            log.warn("settle 실패: 계좌 잔액 부족. senderId={}, balance={}, amount={}", senderId, available, amount);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "계좌 잔액을 확인해주세요.");
+        }
+
+        try {
+            settlementMetrics.record(strategy, SettlementMetrics.Phase.BALANCE_UPDATE, () -> {
+                if (shardedReceiver) {
+                    accountMapper.addBalance(senderId, amount.negate());
+                    shardedBalanceService.credit(receiverId, amount);
+                } else {
                     accountMapper.transactionBalance(receiverId, senderId, amount);
-                    log.info("settle: 계좌 트랜잭션 완료. senderId {} -> receiverId {} 에게 {}원 송금.", senderId, receiverId, amount);
-                } catch (DataAccessException e) {
-                    log.error("settle 실패: 계좌 이체 중 DB 오류 발생 - {}", e.getMessage(), e);
-                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "계좌 이체 중 서버 오류가 발생했습니다.");
                 }
+            });
+            log.info("settle: 계좌 트랜잭션 완료. senderId {} -> receiverId {} 에게 {}원 송금.", senderId, receiverId, amount);
+        } catch (DataAccessException e) {
+            log.error("settle 실패: 계좌 이체 중 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "계좌 이체 중 서버 오류가 발생했습니다.");
+        }
 
-                try {
-                    settlementMapper.updateIsPayedByExpenseIdAndMemberID(dto.getExpenseId(), senderId);
-                    log.info("settle: SettlementNotes.isPayed 업데이트 완료. expenseId={}, memberId={}", dto.getExpenseId(), senderId);
-                } catch (DataAccessException e) {
-                    log.error("settle 실패: SETTLEMENT_NOTES is_payed 업데이트 중 DB 오류 발생 - {}", e.getMessage(), e);
-                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 내역 업데이트 중 서버 오류가 발생했습니다.");
-                }
+        markPaid(dto, senderId, strategy);
+        log.info("settle 메서드 완료: expenseId={}", dto.getExpenseId());
+        return true;
+    }
 
-                try{
-                    List<SettlementNotes> settlementNotes = settlementMapper.searchByExpenseId(dto.getExpenseId());
-                    boolean allSettlementsPayed = true;
-                    for(SettlementNotes settlementNote : settlementNotes) {
-                        if(settlementNote.getIsPayed() == null ||  !settlementNote.getIsPayed()) {
-                            allSettlementsPayed = false;
-                            break;
-                        }
-                    }
-                    if (allSettlementsPayed) {
-                        expenseMapper.updateSettlementCompleted(dto.getExpenseId(), true);
-                        log.info("settle: Expense.settlement_completed 업데이트 완료. expenseId={}", dto.getExpenseId());
-                    }
-                } catch (DataAccessException e) {
-                    log.error("settle 실패: 전체 정산 완료 상태 업데이트 중 DB 오류 발생 - {}", e.getMessage(), e);
-                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "전체 정산 상태 업데이트 중 서버 오류가 발생했습니다.");
-                }
+    // 잠그기 전에 확정한 정산 요청. 송금인의 미지불 정산 내역을 확인한 상태다.
+    private record SettlementPlan(SettlementRequestDto dto, Long senderId, Long receiverId, boolean shardedReceiver) {
+    }
 
-                log.info("settle 메서드 완료: expenseId={}", dto.getExpenseId());
-                return true;
-            } catch (BusinessException e) {
-                throw e;
-            } catch (PessimisticLockingFailureException e) {
-                log.warn("settle: 잠금 획득 실패 또는 데드락 발생. 재시도 시도 중 ({} / {}).", retryCount + 1, MAX_RETRIES);
-                if (retryCount < MAX_RETRIES - 1) {
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MS * (retryCount + 1));
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 재시도 대기 오류가 발생했습니다.");
-                    }
-                } else {
-                    log.error("settle 실패: 최대 재시도 횟수 초과. expenseId={}", dto.getExpenseId(), e);
-                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "일시적인 서버 부하로 정산에 실패했습니다. 잠시 후 다시 시도해주세요.");
-                }
-            } catch (DataAccessException e) {
-                log.error("settle 실패: 알 수 없는 DB 오류 발생 (재시도 대상 아님) - {}", e.getMessage(), e);
-                throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 서버 오류가 발생했습니다.");
-            }
+    // 송금인의 정산 내역을 지불 처리하고, 미정산 카운터를 줄이는 같은 문장에서 0 이 되면 비용을 정산 완료로 바꾼다.
+    // 지불 처리한 건이 없으면 예외를 던져 같은 트랜잭션의 이체까지 되돌린다. 지불 처리한 건수를 돌려준다.
+    private int markPaid(SettlementRequestDto dto, Long senderId, String strategy) {
+        int paidCount;
+        try {
+            paidCount = settlementMetrics.record(strategy, SettlementMetrics.Phase.NOTE_UPDATE,
+                    () -> settlementMapper.updateIsPayedByExpenseIdAndMemberID(dto.getExpenseId(), senderId));
+            log.info("settle: SettlementNotes.isPayed 업데이트 완료. expenseId={}, memberId={}", dto.getExpenseId(), senderId);
+        } catch (DataAccessException e) {
+            log.error("settle 실패: SETTLEMENT_NOTES is_payed 업데이트 중 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 내역 업데이트 중 서버 오류가 발생했습니다.");
+        }
+        if (paidCount == 0) {
+            // 검증한 뒤 다른 요청이 먼저 지불했거나 정산 대상이 아니다.
+            checkUnpaid(dto.getExpenseId(), senderId, strategy);
+            log.warn("settle 실패: 이미 지불한 정산입니다. expenseId={}, memberId={}", dto.getExpenseId(), senderId);
+            throw new BusinessException(StatusCode.DUPLICATE_REQUEST, "이미 지불한 정산입니다.");
+        }
+
+        try{
+            settlementMetrics.record(strategy, SettlementMetrics.Phase.COMPLETION_CHECK,
+                    () -> expenseMapper.decrementUnpaidCount(dto.getExpenseId(), paidCount));
+        } catch (DataAccessException e) {
+            log.error("settle 실패: 전체 정산 완료 상태 업데이트 중 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "전체 정산 상태 업데이트 중 서버 오류가 발생했습니다.");
+        }
+        return paidCount;
+    }
+
+    // 분할 잔액 계좌는 샤드 행에 입금하므로 본 계좌 행을 잠그지 않는다. 나머지는 member_id 순서로 잠가 데드락을 피한다.
+    // 잠금 보유 시간은 첫 번째 행을 잠근 시점부터 잰다. 두 번째 행을 기다리는 동안에도 첫 행은 잠겨 있다.
+    private AccountPair lockAccounts(Long senderId, Long receiverId, boolean shardedReceiver, String strategy) {
+        if (shardedReceiver) {
+            Account sender = accountMapper.searchAccountByMemberIdForUpdate(senderId);
+            settlementMetrics.lockAcquired(strategy);
+            return new AccountPair(sender, accountMapper.searchAccountByMemberId(receiverId));
         }
-        return false;
+        if (senderId.compareTo(receiverId) < 0) {
+            Account sender = accountMapper.searchAccountByMemberIdForUpdate(senderId);
+            settlementMetrics.lockAcquired(strategy);
+            return new AccountPair(sender, accountMapper.searchAccountByMemberIdForUpdate(receiverId));
+        }
+        Account receiver = accountMapper.searchAccountByMemberIdForUpdate(receiverId);
+        settlementMetrics.lockAcquired(strategy);
+        return new AccountPair(accountMapper.searchAccountByMemberIdForUpdate(senderId), receiver);
+    }
+
+    private record AccountPair(Account sender, Account receiver) {
     }
 
-    private static BigDecimal verificationAmount(SettlementRequestDto dto, Account senderAccount, Account receiverAccount) {
-        BigDecimal amount = dto.getAmount();
-        if(amount == null || amount.compareTo(BigDecimal.ZERO) <= 0){
+    // 본 계좌 잔액이 모자라면 샤드에 쌓인 입금을 먼저 합친다.
+    // 원장 분개는 READ COMMITTED 트랜잭션(settleLedger)에서만 합친다. 다른 트랜잭션에서 합치면 compact 가
+    // 바깥 트랜잭션의 격리 수준을 따라 분개 행에 넥스트 키 잠금을 건다. 그런 경로는 availableBalance 로 잔액만 본다.
+    private Account refreshIfShort(Account senderAccount, Money amount, boolean compactLedger) {
+        Long memberId = senderAccount.getMemberId();
+        if (amount == null || senderAccount.getBalance().isGreaterThan(amount)) {
+            return senderAccount;
+        }
+        Money folded = Money.ZERO;
+        if (shardedBalanceService.isHot(memberId)) {
+            folded = folded.plus(shardedBalanceService.foldIn(memberId));
+        }
+        if (compactLedger) {
+            folded = folded.plus(ledgerBalanceService.compact(memberId));
+        }
+        if (folded.isZero()) {
+            return senderAccount;
+        }
+        return accountMapper.searchAccountByMemberIdForUpdate(memberId);
+    }
+
+    // 출금 가능 잔액. 원장을 합치지 않은 경로는 스냅샷이 모자랄 때 잠그지 않는 분개 합계를 더해서 본다.
+    // 이 경우 스냅샷은 잠시 음수가 될 수 있고, 다음 합산에서 입금 분개가 채운다.
+    private Money availableBalance(Account senderAccount, Money amount, boolean ledgerCompacted) {
+        Money balance = senderAccount.getBalance();
+        if (ledgerCompacted || amount == null || balance.isGreaterThan(amount)) {
+            return balance;
+        }
+        return balance.plus(ledgerBalanceService.pending(senderAccount.getMemberId()));
+    }
+
+    private static Money verificationAmount(SettlementRequestDto dto, Money available) {
+        Money amount = dto.getAmount();
+        if(amount == null || !amount.isPositive()){
             throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
         }
-        if(senderAccount.getBalance().subtract(amount).compareTo(BigDecimal.ZERO)<=0){
+        if(!available.isGreaterThan(amount)){
             throw new BusinessException(StatusCode.BAD_REQUEST, "계좌 잔액을 확인해주세요.");
         }
         return amount;
     }
 
-    // 낙관적 락 메서드 - 재시도 로직만 담당 (트랜잭션 없음)
+    // 낙관적 락 메서드 - 재시도 로직만 담당하고, 시도마다 새 트랜잭션을 연다.
     public int settle2(SettlementRequestDto dto) {
         log.info("settle2 메서드 호출 시작: {}", dto);
-        for (int retryCount = 0; retryCount < MAX_RETRIES; retryCount++) {
-            try {
-                // 실제 트랜잭션 로직을 별도 메서드로 호출
-                executeSettle2Transaction(dto);
-                return retryCount;
-            } catch (OptimisticLockingFailureException e) {
-                log.warn("settle2: 낙관적 잠금 실패 (버전 충돌). 재시도 시도 중 ({} / {}).", retryCount + 1, MAX_RETRIES);
-                if (retryCount < MAX_RETRIES - 1) {
-                    try {
-                        long baseDelay = RETRY_DELAY_MS * (retryCount + 1);
-                        long randomDelay = (long) (Math.random() * baseDelay * 0.5);
-                        TimeUnit.MILLISECONDS.sleep(baseDelay + randomDelay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 재시도 대기 오류가 발생했습니다.");
-                    }
-                } else {
-                    log.error("settle2 실패: 최대 재시도 횟수 초과. expenseId={}", dto.getExpenseId(), e);
-                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "일시적인 서버 부하로 정산에 실패했습니다.");
-                }
-            }
-        }
-        throw new BusinessException(StatusCode.INTERNAL_ERROR, "최대 재시도 횟수 초과");
+        Long receiverId = receiverOf(dto);
+        return settlementRetryer.execute("settle2", SettlementRetryer.keysOf(dto, receiverId), OptimisticLockingFailureException.class, retryCount -> {
+            // 실제 트랜잭션 로직을 별도 메서드로 호출한다.
+            SettlementEvents.attempt("settle2", dto.getExpenseId(), dto.getMemberId(), receiverId, retryCount,
+                    () -> transactionTemplate.execute(status -> executeSettle2Transaction(dto, retryCount)));
+            return retryCount;
+        });
+    }
+
+    private Long receiverOf(SettlementRequestDto dto) {
+        Expense expense = expenseCache.searchByExpenseId(dto.getExpenseId());
+        return expense == null ? null : expense.getMemberId();
     }
 
-    // 실제 비즈니스 로직을 담은 private 메서드 (새로운 트랜잭션 적용)
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    protected boolean executeSettle2Transaction(SettlementRequestDto dto) {
+    // 실제 비즈니스 로직. 트랜잭션은 부르는 쪽(settle2, 가상 스레드 실행기)이 시도마다 연다.
+    public boolean executeSettle2Transaction(SettlementRequestDto dto, int attempt) {
         log.info("executeSettle2Transaction 메서드 호출 시작: {}", dto);
-        if (dto.getAmount() == null || dto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
             log.warn("executeSettle2Transaction 실패: 금액이 유효하지 않습니다. amount={}", dto.getAmount());
             throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
         }
-        Expense expense = expenseMapper.searchByExpenseId(dto.getExpenseId());
+        Expense expense = settlementMetrics.record("settle2", SettlementMetrics.Phase.EXPENSE_READ,
+                () -> expenseCache.searchByExpenseId(dto.getExpenseId()));
         if (expense == null) {
             log.warn("executeSettle2Transaction 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", dto.getExpenseId());
             throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
@@ -193,55 +327,335 @@ public class SettlementService {
         Long senderId = dto.getMemberId();
         Long receiverId = expense.getMemberId();
 
-        Account senderAccount = accountMapper.searchAccountByMemberId(senderId);
-        Account receiverAccount = accountMapper.searchAccountByMemberId(receiverId);
+        AccountPair read = settlementMetrics.record("settle2", SettlementMetrics.Phase.ACCOUNT_READ,
+                () -> new AccountPair(accountMapper.searchAccountByMemberId(senderId), accountMapper.searchAccountByMemberId(receiverId)));
+        Account senderAccount = read.sender();
+        Account receiverAccount = read.receiver();
 
         if (senderAccount == null || receiverAccount == null) {
             log.warn("executeSettle2Transaction 실패: 연동된 계좌를 찾을 수 없습니다. senderId={}, receiverId={}", senderId, receiverId);
             throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
         }
-        BigDecimal amount = verificationAmount(dto, senderAccount, receiverAccount);
-        if (senderAccount.getBalance().subtract(amount).compareTo(BigDecimal.ZERO) < 0) {
-            log.warn("executeSettle2Transaction 실패: 계좌 잔액 부족. senderId={}, balance={}, amount={}", senderId, senderAccount.getBalance(), amount);
-            throw new BusinessException(StatusCode.BAD_REQUEST, "계좌 잔액을 확인해주세요.");
-        }
+        senderAccount = refreshIfShort(senderAccount, dto.getAmount(), false);
+        Money amount = verificationAmount(dto, availableBalance(senderAccount, dto.getAmount(), false));
         try {
-            int updateCount = accountMapper.updateBalancesWithOptimisticLock(
-                    senderId,
-                    receiverId,
-                    amount,
-                    senderAccount.getVersion(),
-                    receiverAccount.getVersion()
-            );
-
-            if (updateCount != 2) {
-                throw new OptimisticLockingFailureException("계좌 버전 충돌");
-            }
+            Account sender = senderAccount;
+            settlementMetrics.record("settle2", SettlementMetrics.Phase.BALANCE_UPDATE, () -> {
+                OptimisticConflictEvent conflict = new OptimisticConflictEvent();
+                conflict.begin();
+                if (shardedBalanceService.isHot(receiverId)) {
+                    // 분할 잔액 계좌는 보내는 쪽 버전만 확인하고 입금은 샤드 행에 쌓는다.
+                    int updateCount = accountMapper.updateBalanceWithVersion(
+                            senderId,
+                            sender.getBalance().minus(amount),
+                            sender.getVersion()
+                    );
+                    if (updateCount != 1) {
+                        SettlementEvents.conflict(conflict, dto.getExpenseId(), senderId, receiverId, attempt, 1, updateCount);
+                        throw new OptimisticLockingFailureException("계좌 버전 충돌");
+                    }
+                    shardedBalanceService.credit(receiverId, amount);
+                } else {
+                    int updateCount = accountMapper.updateBalancesWithOptimisticLock(
+                            senderId,
+                            receiverId,
+                            amount,
+                            sender.getVersion(),
+                            receiverAccount.getVersion()
+                    );
+
+                    if (updateCount != 2) {
+                        SettlementEvents.conflict(conflict, dto.getExpenseId(), senderId, receiverId, attempt, 2, updateCount);
+                        throw new OptimisticLockingFailureException("계좌 버전 충돌");
+                    }
+                }
+            });
             log.info("executeSettle2Transaction: 계좌 트랜잭션 완료. senderId {} -> receiverId {} 에게 {}원 송금.", senderId, receiverId, amount);
+        } catch (OptimisticLockingFailureException e) {
+            // 버전 충돌은 재시도 대상이므로 그대로 던진다.
+            throw e;
         } catch (DataAccessException e) {
             log.error("executeSettle2Transaction 실패: 계좌 업데이트 중 DB 오류 발생 - {}", e.getMessage(), e);
             throw new BusinessException(StatusCode.INTERNAL_ERROR, "계좌 이체 중 서버 오류가 발생했습니다.");
         }
-        try {
-            settlementMapper.updateIsPayedByExpenseIdAndMemberID(dto.getExpenseId(), senderId);
-            log.info("executeSettle2Transaction: SettlementNotes.isPayed 업데이트 완료. expenseId={}, memberId={}", dto.getExpenseId(), senderId);
+        markPaid(dto, senderId, "settle2");
+        log.info("executeSettle2Transaction 메서드 완료: expenseId={}", dto.getExpenseId());
+        return true;
+    }
+
+    // JVM 스트라이프 락 메서드 - 같은 계좌 요청은 메모리에서 대기하고, 락을 잡은 뒤에만 짧은 트랜잭션을 연다.
+    public boolean settle3(SettlementRequestDto dto) {
+        log.info("settle3 메서드 호출 시작: {}", dto);
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
+            log.warn("settle3 실패: 금액이 유효하지 않습니다. amount={}", dto.getAmount());
+            throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
+        }
+        Expense expense = settlementMetrics.record("settle3", SettlementMetrics.Phase.EXPENSE_READ,
+                () -> expenseCache.searchByExpenseId(dto.getExpenseId()));
+        if (expense == null) {
+            log.warn("settle3 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", dto.getExpenseId());
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
+        }
+
+        try (AccountLockManager.Locks ignored = accountLockManager.lock(dto.getMemberId(), expense.getMemberId())) {
+            Boolean result = SettlementEvents.attempt("settle3", dto.getExpenseId(), dto.getMemberId(), expense.getMemberId(), 0,
+                    () -> transactionTemplate.execute(status -> settleWithRowLocks(dto, expense, "settle3", 0)));
+            log.info("settle3 메서드 완료: expenseId={}", dto.getExpenseId());
+            return Boolean.TRUE.equals(result);
+        } catch (PessimisticLockingFailureException e) {
+            // 다른 인스턴스와의 경합. JVM 락을 통과한 뒤라 드물기 때문에 재시도하지 않는다.
+            log.warn("settle3 실패: 다른 인스턴스와 DB 잠금 경합 발생. expenseId={}", dto.getExpenseId(), e);
+            throw new BusinessException(StatusCode.SERVICE_UNAVAILABLE, "일시적인 서버 부하로 정산에 실패했습니다. 잠시 후 다시 시도해주세요.");
         } catch (DataAccessException e) {
-            log.error("executeSettle2Transaction 실패: SETTLEMENT_NOTES is_payed 업데이트 중 DB 오류 발생 - {}", e.getMessage(), e);
-            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 내역 업데이트 중 서버 오류가 발생했습니다.");
+            log.error("settle3 실패: 알 수 없는 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 서버 오류가 발생했습니다.");
         }
-        try{
-            List<SettlementNotes> settlementNotes = settlementMapper.searchByExpenseId(dto.getExpenseId());
-            boolean allSettlementsPayed = settlementNotes.stream().allMatch(s -> s.getIsPayed() != null && s.getIsPayed());
+    }
+
+    // 조건부 갱신 메서드 - SELECT ... FOR UPDATE 없이 출금(balance > amount), 입금, 정산 내역, 완료 판정을 한 번의 왕복으로 보낸다.
+    // 행 잠금은 UPDATE 가 잡고 커밋까지 유지되므로 잠금 보유 시간이 DB 왕복 한 번에 가까워진다.
+    // 변경 행 수로 잔액 부족과 중복 지불을 판별하고, 실패하면 예외로 트랜잭션 전체를 되돌린다.
+    // 시도마다 새 트랜잭션을 열어서, 재시도 대기 중에는 앞선 시도의 행 잠금이 남지 않는다.
+    public boolean settle4(SettlementRequestDto dto) {
+        log.info("settle4 메서드 호출 시작: {}", dto);
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
+            log.warn("settle4 실패: 금액이 유효하지 않습니다. amount={}", dto.getAmount());
+            throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
+        }
+        return settlementRetryer.execute("settle4", SettlementRetryer.keysOf(dto, receiverOf(dto)), PessimisticLockingFailureException.class, retryCount -> {
+            try {
+                Expense expense = settlementMetrics.record("settle4", SettlementMetrics.Phase.EXPENSE_READ,
+                        () -> expenseCache.searchByExpenseId(dto.getExpenseId()));
+                if (expense == null) {
+                    log.warn("settle4 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", dto.getExpenseId());
+                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
+                }
+                Boolean settled = SettlementEvents.attempt("settle4", dto.getExpenseId(), dto.getMemberId(), expense.getMemberId(), retryCount,
+                        () -> transactionTemplate.execute(status -> settleConditionally(dto, expense)));
+                return Boolean.TRUE.equals(settled);
+            } catch (PessimisticLockingFailureException e) {
+                log.warn("settle4: 잠금 대기 시간 초과 또는 데드락 발생. 시도 #{}", retryCount + 1);
+                throw e;
+            } catch (DataAccessException e) {
+                log.error("settle4 실패: 알 수 없는 DB 오류 발생 (재시도 대상 아님) - {}", e.getMessage(), e);
+                throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 서버 오류가 발생했습니다.");
+            }
+        });
+    }
+
+    private boolean settleConditionally(SettlementRequestDto dto, Expense expense) {
+        Long senderId = dto.getMemberId();
+        Long receiverId = expense.getMemberId();
+        if (senderId == null || senderId.equals(receiverId)) {
+            log.warn("settle4 실패: 송금인이 유효하지 않습니다. senderId={}, receiverId={}", senderId, receiverId);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "정산할 회원을 확인해주세요.");
+        }
+        // 분할 잔액 계좌가 보낼 때는 샤드에 쌓인 입금을 먼저 합쳐야 조건부 출금이 실제 잔액을 본다.
+        if (shardedBalanceService.isHot(senderId)) {
+            shardedBalanceService.foldIn(senderId);
+        }
+        Integer shardSlot = shardedBalanceService.isHot(receiverId) ? shardedBalanceService.randomSlot() : null;
+
+        ConditionalSettlementResult result = settlementMetrics.record("settle4", SettlementMetrics.Phase.BALANCE_UPDATE,
+                () -> settlementMapper.settleConditionally(dto.getExpenseId(), senderId, receiverId, dto.getAmount(),
+                        receiverId.compareTo(senderId) < 0, shardSlot));
+        log.info("settle4: 조건부 갱신 결과 {}", result);
+
+        if (result.getDebited() != 1) {
+            if (accountMapper.searchAccountByMemberId(senderId) == null) {
+                log.warn("settle4 실패: 연동된 계좌를 찾을 수 없습니다. senderId={}", senderId);
+                throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
+            }
+            log.warn("settle4 실패: 계좌 잔액 부족. senderId={}, amount={}", senderId, dto.getAmount());
+            throw new BusinessException(StatusCode.BAD_REQUEST, "계좌 잔액을 확인해주세요.");
+        }
+        if (result.getCredited() != 1) {
+            log.warn("settle4 실패: 연동된 계좌를 찾을 수 없습니다. receiverId={}", receiverId);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
+        }
+        if (result.getMarked() != 1) {
+            if (settlementMapper.searchByMemberIdAndExpenseId(dto.getExpenseId(), senderId) == null) {
+                log.warn("settle4 실패: 정산 대상이 아닙니다. expenseId={}, memberId={}", dto.getExpenseId(), senderId);
+                throw new BusinessException(StatusCode.BAD_REQUEST, "정산 대상 회원이 아닙니다.");
+            }
+            log.warn("settle4 실패: 이미 지불한 정산입니다. expenseId={}, memberId={}", dto.getExpenseId(), senderId);
+            throw new BusinessException(StatusCode.DUPLICATE_REQUEST, "이미 지불한 정산입니다.");
+        }
+        log.info("settle4 메서드 완료: senderId {} -> receiverId {} 에게 {}원 송금.", senderId, receiverId, dto.getAmount());
+        return true;
+    }
 
-            if (allSettlementsPayed) {
-                expenseMapper.updateSettlementCompleted(dto.getExpenseId(), true);
-                log.info("executeSettle2Transaction: Expense.settlement_completed 업데이트 완료. expenseId={}", dto.getExpenseId());
+    // 원장 모드 메서드 - 송금인 계좌 행만 잠그고, 수취인에게는 입금 분개를 INSERT 한다.
+    // 갭 잠금 없이 분개를 합칠 수 있도록 시도마다 READ COMMITTED 트랜잭션을 새로 연다.
+    public boolean settleLedger(SettlementRequestDto dto) {
+        log.info("settleLedger 메서드 호출 시작: {}", dto);
+        if (!ledgerBalanceService.isEnabled()) {
+            log.warn("settleLedger 실패: 원장 모드가 꺼져 있습니다.");
+            throw new BusinessException(StatusCode.BAD_REQUEST, "원장 모드가 활성화되어 있지 않습니다.");
+        }
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
+            log.warn("settleLedger 실패: 금액이 유효하지 않습니다. amount={}", dto.getAmount());
+            throw new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다.");
+        }
+        return settlementRetryer.execute("settleLedger", SettlementRetryer.keysOf(dto, receiverOf(dto)), PessimisticLockingFailureException.class, retryCount -> {
+            try {
+                Expense expense = settlementMetrics.record("ledger", SettlementMetrics.Phase.EXPENSE_READ,
+                        () -> expenseCache.searchByExpenseId(dto.getExpenseId()));
+                if (expense == null) {
+                    log.warn("settleLedger 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", dto.getExpenseId());
+                    throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
+                }
+                Boolean settled = SettlementEvents.attempt("ledger", dto.getExpenseId(), dto.getMemberId(), expense.getMemberId(), retryCount,
+                        () -> readCommittedTransaction.execute(status -> settleWithLedger(dto, expense, retryCount)));
+                return Boolean.TRUE.equals(settled);
+            } catch (PessimisticLockingFailureException e) {
+                log.warn("settleLedger: 잠금 획득 실패 또는 데드락 발생. 시도 #{}", retryCount + 1);
+                throw e;
+            } catch (DataAccessException e) {
+                log.error("settleLedger 실패: 알 수 없는 DB 오류 발생 (재시도 대상 아님) - {}", e.getMessage(), e);
+                throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 서버 오류가 발생했습니다.");
             }
+        });
+    }
+
+    private boolean settleWithLedger(SettlementRequestDto dto, Expense expense, int attempt) {
+        Long senderId = dto.getMemberId();
+        Long receiverId = expense.getMemberId();
+
+        // 출금 검증은 송금인 행 잠금으로 직렬화한다. 수취인 행은 존재만 확인하고 잠그지 않는다.
+        Account senderAccount = settlementMetrics.record("ledger", SettlementMetrics.Phase.LOCK_ACQUIRE,
+                () -> SettlementEvents.lock("ledger", dto.getExpenseId(), senderId, receiverId, attempt, false,
+                        () -> accountMapper.searchAccountByMemberIdForUpdate(senderId)));
+        Account receiverAccount = settlementMetrics.record("ledger", SettlementMetrics.Phase.ACCOUNT_READ,
+                () -> accountMapper.searchAccountByMemberId(receiverId));
+        if (senderAccount == null || receiverAccount == null) {
+            log.warn("settleLedger 실패: 연동된 계좌를 찾을 수 없습니다. senderId={}, receiverId={}", senderId, receiverId);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
+        }
+
+        senderAccount = refreshIfShort(senderAccount, dto.getAmount(), true);
+        Money amount = verificationAmount(dto, availableBalance(senderAccount, dto.getAmount(), true));
+
+        try {
+            settlementMetrics.record("ledger", SettlementMetrics.Phase.BALANCE_UPDATE,
+                    () -> ledgerBalanceService.transfer(senderId, receiverId, dto.getExpenseId(), amount));
+            log.info("settleLedger: 분개 기록 완료. senderId {} -> receiverId {} 에게 {}원 송금.", senderId, receiverId, amount);
         } catch (DataAccessException e) {
-            log.error("executeSettle2Transaction 실패: 전체 정산 완료 상태 업데이트 중 DB 오류 발생 - {}", e.getMessage(), e);
-            throw new BusinessException(StatusCode.INTERNAL_ERROR, "전체 정산 상태 업데이트 중 서버 오류가 발생했습니다.");
+            log.error("settleLedger 실패: 분개 기록 중 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "계좌 이체 중 서버 오류가 발생했습니다.");
         }
-        log.info("executeSettle2Transaction 메서드 완료: expenseId={}", dto.getExpenseId());
+
+        markPaid(dto, senderId, "ledger");
+        log.info("settleLedger 메서드 완료: expenseId={}", dto.getExpenseId());
         return true;
     }
+
+    // 한 비용의 여러 정산을 한 트랜잭션으로 처리한다. 계좌는 member_id 순서로 한 번만 잠근다.
+    @Transactional
+    public int settleBatch(SettlementBatchRequestDto dto) {
+        log.info("settleBatch 메서드 호출 시작: {}", dto);
+        Long expenseId = dto.getExpenseId();
+        if (expenseId == null) {
+            log.warn("settleBatch 실패: expenseId 가 없습니다.");
+            throw new BusinessException(StatusCode.BAD_REQUEST, "정산할 비용을 지정해주세요.");
+        }
+        Expense expense = settlementMetrics.record("batch", SettlementMetrics.Phase.EXPENSE_READ,
+                () -> expenseCache.searchByExpenseId(expenseId));
+        if (expense == null) {
+            log.warn("settleBatch 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", expenseId);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
+        }
+        Long receiverId = expense.getMemberId();
+
+        Map<Long, SettlementRequestDto> transfers = new LinkedHashMap<>();
+        if (dto.getSettlements() == null || dto.getSettlements().isEmpty()) {
+            for (SettlementNotes note : settlementMapper.searchUnpaidByExpenseId(expenseId)) {
+                if (!note.getMemberId().equals(receiverId)) {
+                    transfers.put(note.getMemberId(), new SettlementRequestDto(note.getMemberId(), expenseId, note.getShareAmount()));
+                }
+            }
+        } else {
+            for (SettlementRequestDto settlement : dto.getSettlements()) {
+                if (!expenseId.equals(settlement.getExpenseId()) || settlement.getMemberId() == null
+                        || settlement.getMemberId().equals(receiverId)) {
+                    log.warn("settleBatch 실패: 잘못된 정산 요청이 포함되어 있습니다. {}", settlement);
+                    throw new BusinessException(StatusCode.BAD_REQUEST, "일괄 정산 요청에 잘못된 항목이 포함되어 있습니다.");
+                }
+                if (transfers.put(settlement.getMemberId(), settlement) != null) {
+                    log.warn("settleBatch 실패: 같은 회원의 정산 요청이 중복되었습니다. memberId={}", settlement.getMemberId());
+                    throw new BusinessException(StatusCode.DUPLICATE_ENTRY, "같은 회원의 정산 요청이 중복되었습니다.");
+                }
+            }
+        }
+        if (transfers.isEmpty()) {
+            log.info("settleBatch: 정산할 내역이 없습니다. expenseId={}", expenseId);
+            return 0;
+        }
+
+        List<Long> memberIds = new ArrayList<>(transfers.keySet());
+        boolean shardedReceiver = shardedBalanceService.isHot(receiverId);
+        if (!shardedReceiver) {
+            memberIds.add(receiverId);
+        }
+        memberIds.sort(Long::compareTo);
+
+        Map<Long, Account> accounts = new LinkedHashMap<>();
+        try {
+            List<Account> locked = settlementMetrics.record("batch", SettlementMetrics.Phase.LOCK_ACQUIRE,
+                    () -> accountMapper.searchAccountsByMemberIdsForUpdate(memberIds));
+            for (Account account : locked) {
+                accounts.put(account.getMemberId(), account);
+            }
+        } catch (PessimisticLockingFailureException e) {
+            log.warn("settleBatch 실패: 잠금 획득 실패 (비관적 잠금 경합). expenseId={}", expenseId, e);
+            throw new BusinessException(StatusCode.SERVICE_UNAVAILABLE, "일시적인 서버 부하로 정산에 실패했습니다. 잠시 후 다시 시도해주세요.");
+        } catch (DataAccessException e) {
+            log.error("settleBatch 실패: 계좌 조회 및 잠금 중 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "연동 계좌 조회 중 서버 오류가 발생했습니다.");
+        }
+
+        Account receiverAccount = shardedReceiver ? accountMapper.searchAccountByMemberId(receiverId) : accounts.get(receiverId);
+        List<BalanceDelta> deltas = new ArrayList<>();
+        Money received = Money.ZERO;
+        for (SettlementRequestDto transfer : transfers.values()) {
+            Account senderAccount = accounts.get(transfer.getMemberId());
+            if (senderAccount == null || receiverAccount == null) {
+                log.warn("settleBatch 실패: 연동된 계좌를 찾을 수 없습니다. senderId={}, receiverId={}", transfer.getMemberId(), receiverId);
+                throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
+            }
+            senderAccount = refreshIfShort(senderAccount, transfer.getAmount(), false);
+            Money amount = verificationAmount(transfer, availableBalance(senderAccount, transfer.getAmount(), false));
+            deltas.add(new BalanceDelta(transfer.getMemberId(), amount.negate()));
+            received = received.plus(amount);
+        }
+        if (!shardedReceiver) {
+            deltas.add(new BalanceDelta(receiverId, received));
+        }
+
+        try {
+            Money total = received;
+            settlementMetrics.record("batch", SettlementMetrics.Phase.BALANCE_UPDATE, () -> {
+                accountMapper.updateBalancesByDelta(deltas);
+                if (shardedReceiver) {
+                    shardedBalanceService.credit(receiverId, total);
+                }
+            });
+            int paidCount = settlementMetrics.record("batch", SettlementMetrics.Phase.NOTE_UPDATE,
+                    () -> settlementMapper.updateIsPayedByExpenseIdAndMemberIds(expenseId, new ArrayList<>(transfers.keySet())));
+            if (paidCount != transfers.size()) {
+                // 미지불 내역은 잠그기 전에 읽었다. 그 사이 다른 요청이 지불했거나 정산 대상이 아닌 회원이 섞였으면 예외로 이체까지 되돌린다.
+                log.warn("settleBatch 실패: 미지불 정산 내역 수가 요청과 다릅니다. expenseId={}, requested={}, paid={}",
+                        expenseId, transfers.size(), paidCount);
+                throw new BusinessException(StatusCode.DUPLICATE_REQUEST, "이미 지불한 정산이 포함되어 있습니다.");
+            }
+            log.info("settleBatch: {}건 이체 완료. receiverId={} 에게 총 {}원 송금.", transfers.size(), receiverId, received);
+            settlementMetrics.record("batch", SettlementMetrics.Phase.COMPLETION_CHECK,
+                    () -> expenseMapper.decrementUnpaidCount(expenseId, paidCount));
+        } catch (DataAccessException e) {
+            log.error("settleBatch 실패: 일괄 이체 중 DB 오류 발생 - {}", e.getMessage(), e);
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "일괄 정산 중 서버 오류가 발생했습니다.");
+        }
+        log.info("settleBatch 메서드 완료: expenseId={}", expenseId);
+        return transfers.size();
+    }
 }
\ No newline at end of file
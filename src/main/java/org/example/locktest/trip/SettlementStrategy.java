@@ -0,0 +1,8 @@
+package org.example.locktest.trip;
+
+public interface SettlementStrategy {
+    String name();
+
+    // 정산을 수행하고 충돌로 인한 재시도 횟수를 반환한다.
+    int settle(SettlementRequestDto dto);
+}
@@ -0,0 +1,50 @@
+package org.example.locktest.trip;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+// 비동기 정산 접수증. 상태는 워커 스레드만 바꾼다.
+@Getter
+@ToString
+public class SettlementTicket {
+    public enum Status { PENDING, COMPLETED, FAILED }
+
+    private final String ticketId;
+    private final Long expenseId;
+    private final Long memberId;
+    private volatile Status status = Status.PENDING;
+    private volatile String message;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private final LocalDateTime requestedAt = LocalDateTime.now();
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private volatile LocalDateTime completedAt;
+    @JsonIgnore
+    @ToString.Exclude
+    private final CompletableFuture<SettlementTicket> completion = new CompletableFuture<>();
+
+    public SettlementTicket(String ticketId, Long expenseId, Long memberId) {
+        this.ticketId = ticketId;
+        this.expenseId = expenseId;
+        this.memberId = memberId;
+    }
+
+    void complete() {
+        finish(Status.COMPLETED, null);
+    }
+
+    void fail(String message) {
+        finish(Status.FAILED, message);
+    }
+
+    private void finish(Status status, String message) {
+        this.message = message;
+        this.completedAt = LocalDateTime.now();
+        this.status = status;
+        completion.complete(this);
+    }
+}
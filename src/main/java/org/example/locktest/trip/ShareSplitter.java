@@ -0,0 +1,36 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.money.Money;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 비용을 참여 회원 수로 똑같이 나눈다. 원 단위로 나누어떨어지지 않는 나머지는 결제자 몫에 얹어서,
+// 반올림 때문에 다른 회원이 결제자에게 보낼 금액이 생기지 않게 한다. 결제자가 참여하지 않으면 앞 회원부터 1원씩 더한다.
+public final class ShareSplitter {
+    private ShareSplitter() {
+    }
+
+    // 참여 회원 순서를 그대로 유지한 회원별 분담액.
+    public static Map<Long, Money> split(Money amount, List<Long> memberIds, Long payerId) {
+        long total = amount.minorUnits();
+        int count = memberIds.size();
+        long share = total / count;
+        long remainder = total - share * count;
+        boolean payerShares = memberIds.contains(payerId);
+
+        Map<Long, Money> shares = new LinkedHashMap<>();
+        for (Long memberId : memberIds) {
+            long units = share;
+            if (payerShares) {
+                units += memberId.equals(payerId) ? remainder : 0;
+            } else if (remainder > 0) {
+                units++;
+                remainder--;
+            }
+            shares.put(memberId, Money.of(units));
+        }
+        return shares;
+    }
+}
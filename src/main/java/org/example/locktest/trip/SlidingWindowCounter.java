@@ -0,0 +1,72 @@
+package org.example.locktest.trip;
+
+import java.util.function.LongSupplier;
+
+// 요청 수와 충돌 수를 시간 버킷 링에 쌓는 슬라이딩 윈도우. 버킷 번호가 바뀌면 해당 칸을 비우고 다시 쓴다.
+public final class SlidingWindowCounter {
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final long[] bucketIds;
+    private final long[] requests;
+    private final long[] conflicts;
+    private long lastBucket;
+
+    public SlidingWindowCounter(int bucketCount, long bucketMillis) {
+        this(bucketCount, bucketMillis, System::currentTimeMillis);
+    }
+
+    SlidingWindowCounter(int bucketCount, long bucketMillis, LongSupplier clock) {
+        this.bucketMillis = bucketMillis;
+        this.clock = clock;
+        this.bucketIds = new long[bucketCount];
+        this.requests = new long[bucketCount];
+        this.conflicts = new long[bucketCount];
+    }
+
+    public synchronized void record(int conflictCount) {
+        long nowBucket = currentBucket();
+        int slot = (int) (nowBucket % bucketIds.length);
+        if (bucketIds[slot] != nowBucket) {
+            bucketIds[slot] = nowBucket;
+            requests[slot] = 0;
+            conflicts[slot] = 0;
+        }
+        requests[slot]++;
+        conflicts[slot] += conflictCount;
+        lastBucket = nowBucket;
+    }
+
+    public synchronized Totals totals() {
+        long nowBucket = currentBucket();
+        long requestSum = 0;
+        long conflictSum = 0;
+        for (int i = 0; i < bucketIds.length; i++) {
+            if (nowBucket - bucketIds[i] < bucketIds.length) {
+                requestSum += requests[i];
+                conflictSum += conflicts[i];
+            }
+        }
+        return new Totals(requestSum, conflictSum);
+    }
+
+    public synchronized boolean isIdle() {
+        return currentBucket() - lastBucket >= bucketIds.length;
+    }
+
+    private long currentBucket() {
+        return clock.getAsLong() / bucketMillis;
+    }
+
+    public record Totals(long requests, long conflicts) {
+        public static final Totals EMPTY = new Totals(0, 0);
+
+        public double conflictRatio() {
+            return requests == 0 ? 0 : (double) conflicts / requests;
+        }
+
+        @Override
+        public String toString() {
+            return requests + " req / " + conflicts + " conflicts";
+        }
+    }
+}
@@ -2,25 +2,147 @@ package org.example.locktest.trip;
 
 import lombok.RequiredArgsConstructor;
 import org.example.locktest.ApiResponse;
+import org.example.locktest.StatusCode;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class TripController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final SettlementService settlementService;
+    private final AdaptiveSettlementRouter adaptiveSettlementRouter;
+    private final SettlementQueue settlementQueue;
+    private final IdempotencyStore idempotencyStore;
+    private final VirtualThreadSettlementExecutor virtualThreadSettlementExecutor;
+    private final ExpenseCache expenseCache;
+    private final SettlementHistoryService settlementHistoryService;
+    private final TripSettlementService tripSettlementService;
+    private final ExpenseService expenseService;
+
     @PostMapping("/settlement")
-    public ResponseEntity<ApiResponse<?>> settle(@RequestBody SettlementRequestDto dto){
-        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementService.settle(dto)));
+    public ResponseEntity<ApiResponse<?>> settle(@RequestBody SettlementRequestDto dto,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        Boolean result = idempotencyStore.execute(idempotencyKeyOf("settlement", idempotencyKey), dto, () -> settlementService.settle(dto));
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(result));
     }
 
     @PostMapping("/settlement2")
-    public ResponseEntity<ApiResponse<?>> settle2(@RequestBody SettlementRequestDto dto){
-        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementService.settle2(dto)));
+    public ResponseEntity<ApiResponse<?>> settle2(@RequestBody SettlementRequestDto dto,
+                                                  @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        Integer result = idempotencyStore.execute(idempotencyKeyOf("settlement2", idempotencyKey), dto, () -> settlementService.settle2(dto));
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(result));
+    }
+
+    @GetMapping("/settlement/idempotency/stats")
+    public ResponseEntity<ApiResponse<?>> idempotencyStats(){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(idempotencyStore.stats()));
+    }
+
+    @GetMapping("/settlement/expense-cache/stats")
+    public ResponseEntity<ApiResponse<?>> expenseCacheStats(){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(expenseCache.stats()));
+    }
+
+    @PostMapping("/settlement3")
+    public ResponseEntity<ApiResponse<?>> settle3(@RequestBody SettlementRequestDto dto){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementService.settle3(dto)));
+    }
+
+    @PostMapping("/settlement4")
+    public ResponseEntity<ApiResponse<?>> settle4(@RequestBody SettlementRequestDto dto){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementService.settle4(dto)));
+    }
+
+    // settlement.ledger.enabled=true 일 때만 쓸 수 있다.
+    @PostMapping("/settlement/ledger")
+    public ResponseEntity<ApiResponse<?>> settleLedger(@RequestBody SettlementRequestDto dto){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementService.settleLedger(dto)));
+    }
+
+    // 서블릿 스레드는 바로 반환되고, 정산과 재시도는 가상 스레드에서 진행된다.
+    @PostMapping("/settlement/virtual")
+    public CompletableFuture<ResponseEntity<ApiResponse<?>>> settleVirtual(@RequestBody SettlementRequestDto dto){
+        return virtualThreadSettlementExecutor.settle(dto)
+                .thenApply(result -> ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(result)));
+    }
+
+    // 낙관적 락 정산의 가상 스레드 버전. 버전 충돌 재시도도 예약 실행으로 넘긴다.
+    @PostMapping("/settlement2/virtual")
+    public CompletableFuture<ResponseEntity<ApiResponse<?>>> settle2Virtual(@RequestBody SettlementRequestDto dto){
+        return virtualThreadSettlementExecutor.settleOptimistic(dto)
+                .thenApply(result -> ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(result)));
+    }
+
+    @PostMapping("/settlement/batch")
+    public ResponseEntity<ApiResponse<?>> settleBatch(@RequestBody SettlementBatchRequestDto dto){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementService.settleBatch(dto)));
+    }
+
+    // 비용과 참여 회원별 정산 내역을 함께 만든다. 분담액은 서버에서 나눈다.
+    @PostMapping("/expenses")
+    public ResponseEntity<ApiResponse<?>> createExpense(@RequestBody ExpenseCreateRequestDto dto){
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.of(StatusCode.CREATED, expenseService.create(dto)));
+    }
+
+    // 여행의 미정산 내역 전체를 회원별로 상계해서 최소 이체로 정산한다.
+    @PostMapping("/trips/{tripId}/settlement")
+    public ResponseEntity<ApiResponse<?>> settleTrip(@PathVariable Long tripId){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(tripSettlementService.settleTrip(tripId)));
+    }
+
+    @PostMapping("/settlement/auto")
+    public ResponseEntity<ApiResponse<?>> settleAuto(@RequestBody SettlementRequestDto dto){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(adaptiveSettlementRouter.settle(dto)));
+    }
+
+    @GetMapping("/settlement/auto/decisions")
+    public ResponseEntity<ApiResponse<?>> routingDecisions(){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(adaptiveSettlementRouter.snapshot()));
+    }
+
+    @PostMapping("/settlement/async")
+    public ResponseEntity<ApiResponse<?>> settleAsync(@RequestBody SettlementRequestDto dto){
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.of(StatusCode.ACCEPTED, settlementQueue.submit(dto)));
+    }
+
+    @GetMapping("/settlement/async/{ticketId}")
+    public ResponseEntity<ApiResponse<?>> settleAsyncStatus(@PathVariable String ticketId){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementQueue.status(ticketId)));
+    }
+
+    // 최신순 키셋 페이지. 응답의 nextCursor 를 다음 요청의 cursor 로 넘긴다.
+    @GetMapping("/members/{memberId}/trips/{tripId}/settlements")
+    public ResponseEntity<ApiResponse<?>> settlementHistory(@PathVariable Long memberId,
+                                                            @PathVariable Long tripId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size){
+        return ResponseEntity.status(HttpStatus.OK).body(ApiResponse.of(settlementHistoryService.page(memberId, tripId, cursor, size)));
+    }
+
+    // 여행 전체 정산 내역을 한 줄에 한 건씩 NDJSON 으로 흘려보낸다.
+    @GetMapping(value = "/trips/{tripId}/settlements/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportSettlements(@PathVariable Long tripId){
+        StreamingResponseBody body = out -> settlementHistoryService.export(tripId, out);
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    // 엔드포인트마다 결과 타입이 달라서 키 공간을 나눈다.
+    private static String idempotencyKeyOf(String endpoint, String idempotencyKey) {
+        return idempotencyKey == null || idempotencyKey.isBlank() ? null : endpoint + ":" + idempotencyKey;
     }
-}
+}
\ No newline at end of file
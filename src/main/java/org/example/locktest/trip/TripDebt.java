@@ -0,0 +1,18 @@
+package org.example.locktest.trip;
+
+import lombok.*;
+import org.example.locktest.money.Money;
+
+// 미정산 내역 한 건을 "debtor 가 creditor(비용 결제자)에게 amount 를 갚아야 한다"로 읽은 것
+@Getter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripDebt {
+    private Long settlementId;
+    private Long expenseId;
+    private Long debtorId;
+    private Long creditorId;
+    private Money amount;
+}
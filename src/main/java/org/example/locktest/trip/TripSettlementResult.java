@@ -0,0 +1,15 @@
+package org.example.locktest.trip;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class TripSettlementResult {
+    private Long tripId;
+    private int settledNotes;
+    private int completedExpenses;
+    private List<NetTransfer> transfers;
+}
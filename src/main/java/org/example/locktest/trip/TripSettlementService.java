@@ -0,0 +1,159 @@
+package org.example.locktest.trip;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.Account.Account;
+import org.example.locktest.Account.AccountMapper;
+import org.example.locktest.Account.BalanceDelta;
+import org.example.locktest.Account.LedgerBalanceService;
+import org.example.locktest.Account.ShardedBalanceService;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// 여행 단위 정산. 여행의 미정산 내역을 회원별 순 잔액으로 상계하고, 최소 이체 목록을 한 트랜잭션에서 처리한다.
+// 참여 회원 계좌는 member_id 순서로 한 번씩만 잠그므로, 비용 x 회원 수만큼이던 이체와 잠금이 회원 수 이하로 준다.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripSettlementService {
+    private final SettlementMapper settlementMapper;
+    private final ExpenseMapper expenseMapper;
+    private final AccountMapper accountMapper;
+    private final ShardedBalanceService shardedBalanceService;
+    private final LedgerBalanceService ledgerBalanceService;
+    private final TransactionTemplate transactionTemplate;
+    private final SettlementRetryer settlementRetryer;
+    private final SettlementMetrics settlementMetrics;
+
+    // 시도마다 새 트랜잭션을 연다. 데드락으로 롤백된 트랜잭션 안에서 재시도하면 잠금도 스냅샷도 새로 잡히지 않는다.
+    public TripSettlementResult settleTrip(Long tripId) {
+        log.info("settleTrip 메서드 호출 시작: tripId={}", tripId);
+        if (tripId == null) {
+            throw new BusinessException(StatusCode.BAD_REQUEST, "정산할 여행을 지정해주세요.");
+        }
+        return settlementRetryer.execute("settleTrip", List.of("trip:" + tripId), PessimisticLockingFailureException.class, retryCount -> {
+            try {
+                return transactionTemplate.execute(status -> settleWithNetting(tripId));
+            } catch (PessimisticLockingFailureException e) {
+                log.warn("settleTrip: 잠금 획득 실패 또는 데드락 발생. 시도 #{}", retryCount + 1);
+                throw e;
+            } catch (DataAccessException e) {
+                log.error("settleTrip 실패: 알 수 없는 DB 오류 발생 (재시도 대상 아님) - {}", e.getMessage(), e);
+                throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 서버 오류가 발생했습니다.");
+            }
+        });
+    }
+
+    private TripSettlementResult settleWithNetting(Long tripId) {
+        // 잠그기 전에 한 번 읽어서 잠글 회원을 정한다.
+        List<TripDebt> candidates = settlementMapper.searchUnpaidDebtsByTripId(tripId);
+        if (candidates.isEmpty()) {
+            log.info("settleTrip: 정산할 내역이 없습니다. tripId={}", tripId);
+            return TripSettlementResult.builder().tripId(tripId).transfers(List.of()).build();
+        }
+        Set<Long> memberIds = new TreeSet<>();
+        for (TripDebt debt : candidates) {
+            memberIds.add(debt.getDebtorId());
+            memberIds.add(debt.getCreditorId());
+        }
+
+        Map<Long, Account> accounts = new TreeMap<>();
+        for (Account account : settlementMetrics.record("trip", SettlementMetrics.Phase.LOCK_ACQUIRE,
+                () -> accountMapper.searchAccountsByMemberIdsForUpdate(new ArrayList<>(memberIds)))) {
+            accounts.put(account.getMemberId(), account);
+        }
+        if (!accounts.keySet().containsAll(memberIds)) {
+            log.warn("settleTrip 실패: 연동된 계좌를 찾을 수 없습니다. tripId={}, memberIds={}", tripId, memberIds);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "연동된 계좌를 찾을 수 없습니다.");
+        }
+
+        // 잠근 뒤 다시 읽는다. 그 사이 지불된 내역은 빠지고, 잠그지 못한 회원이 새로 낀 내역은 다음 정산으로 넘긴다.
+        List<TripDebt> debts = settlementMapper.searchUnpaidDebtsByTripIdForUpdate(tripId).stream()
+                .filter(debt -> accounts.containsKey(debt.getDebtorId()) && accounts.containsKey(debt.getCreditorId()))
+                .toList();
+        if (debts.isEmpty()) {
+            return TripSettlementResult.builder().tripId(tripId).transfers(List.of()).build();
+        }
+
+        Map<Long, Money> balances = DebtSimplifier.netBalances(debts);
+        List<NetTransfer> transfers = DebtSimplifier.simplify(balances);
+
+        List<BalanceDelta> deltas = new ArrayList<>();
+        for (Map.Entry<Long, Money> entry : balances.entrySet()) {
+            Money net = entry.getValue();
+            if (net.isZero()) {
+                continue;
+            }
+            if (net.isNegative()) {
+                verifyBalance(accounts.get(entry.getKey()), net.negate());
+            }
+            deltas.add(new BalanceDelta(entry.getKey(), net));
+        }
+        settlementMetrics.record("trip", SettlementMetrics.Phase.BALANCE_UPDATE, () -> {
+            if (!deltas.isEmpty()) {
+                accountMapper.updateBalancesByDelta(deltas);
+            }
+        });
+        log.info("settleTrip: 내역 {}건을 이체 {}건으로 상계했습니다. tripId={}", debts.size(), transfers.size(), tripId);
+
+        List<Long> settlementIds = debts.stream().map(TripDebt::getSettlementId).toList();
+        int paidCount = settlementMetrics.record("trip", SettlementMetrics.Phase.NOTE_UPDATE,
+                () -> settlementMapper.updateIsPayedBySettlementIds(settlementIds));
+        if (paidCount != settlementIds.size()) {
+            // 잠금을 잡은 뒤 읽은 내역이라 일어나면 안 된다. 일부만 반영되지 않도록 전체를 되돌린다.
+            log.error("settleTrip 실패: 지불 처리 건수가 맞지 않습니다. expected={}, actual={}", settlementIds.size(), paidCount);
+            throw new BusinessException(StatusCode.CONFLICT, "다른 정산과 겹쳐 처리하지 못했습니다. 다시 시도해주세요.");
+        }
+
+        Map<Long, Integer> paidByExpense = new HashMap<>();
+        for (TripDebt debt : debts) {
+            paidByExpense.merge(debt.getExpenseId(), 1, Integer::sum);
+        }
+        settlementMetrics.record("trip", SettlementMetrics.Phase.COMPLETION_CHECK, () -> {
+            for (Map.Entry<Long, Integer> entry : paidByExpense.entrySet()) {
+                expenseMapper.decrementUnpaidCount(entry.getKey(), entry.getValue());
+            }
+        });
+        // 여행의 미지불 내역을 잠근 채 모두 지불했으므로, 내역이 있던 비용은 카운터가 0 이 되어 모두 정산 완료로 바뀐다.
+        int completed = paidByExpense.size();
+
+        log.info("settleTrip 메서드 완료: tripId={}, completedExpenses={}", tripId, completed);
+        return TripSettlementResult.builder()
+                .tripId(tripId)
+                .settledNotes(paidCount)
+                .completedExpenses(completed)
+                .transfers(transfers)
+                .build();
+    }
+
+    // 본 계좌 잔액이 모자라면 샤드 입금은 합치고, 원장 분개는 잠그지 않는 합계만 더해 다시 확인한다.
+    // 여기서 원장을 합치면 compact 가 이 트랜잭션의 격리 수준을 따라 분개 행에 넥스트 키 잠금을 건다.
+    private void verifyBalance(Account account, Money owed) {
+        Money balance = account.getBalance();
+        if (balance.isLessThan(owed)) {
+            Long memberId = account.getMemberId();
+            Money folded = ledgerBalanceService.pending(memberId);
+            if (shardedBalanceService.isHot(memberId)) {
+                folded = folded.plus(shardedBalanceService.foldIn(memberId));
+            }
+            balance = balance.plus(folded);
+        }
+        if (balance.isLessThan(owed)) {
+            log.warn("settleTrip 실패: 계좌 잔액 부족. memberId={}, balance={}, owed={}", account.getMemberId(), balance, owed);
+            throw new BusinessException(StatusCode.BAD_REQUEST, "계좌 잔액을 확인해주세요.");
+        }
+    }
+}
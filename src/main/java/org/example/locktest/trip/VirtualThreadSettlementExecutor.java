@@ -0,0 +1,168 @@
+package org.example.locktest.trip;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.trip.jfr.SettlementEvents;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// 가상 스레드에서 비관적 락(settle) 또는 낙관적 락(settle2) 정산을 시도하고, 재시도 대기는 스레드를 재우지 않고 예약 실행으로 넘긴다.
+// DB 커넥션 사용량은 요청 동시성과 별개로 세마포어로 제한한다. 두 방식이 같은 허용량을 나눠 쓴다.
+@Slf4j
+@Component
+public class VirtualThreadSettlementExecutor {
+    private final SettlementService settlementService;
+    private final ExpenseCache expenseCache;
+    private final TransactionTemplate transactionTemplate;
+    private final SettlementRetryer settlementRetryer;
+    private final SettlementMetrics settlementMetrics;
+    private final Semaphore dbPermits;
+    private final Mode pessimistic;
+    private final Mode optimistic;
+
+    private final ExecutorService virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService backoffScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("settlement-backoff").daemon(true).factory());
+
+    public VirtualThreadSettlementExecutor(SettlementService settlementService,
+                                           ExpenseCache expenseCache,
+                                           TransactionTemplate transactionTemplate,
+                                           SettlementRetryer settlementRetryer,
+                                           SettlementMetrics settlementMetrics,
+                                           @Value("${settlement.virtual.db-permits:10}") int dbPermits) {
+        this.settlementService = settlementService;
+        this.expenseCache = expenseCache;
+        this.transactionTemplate = transactionTemplate;
+        this.settlementRetryer = settlementRetryer;
+        this.settlementMetrics = settlementMetrics;
+        this.dbPermits = new Semaphore(dbPermits, true);
+        this.pessimistic = new Mode("settleVirtual", "virtual", PessimisticLockingFailureException.class, this::settleWithRowLocks);
+        this.optimistic = new Mode("settle2Virtual", "virtual2", OptimisticLockingFailureException.class,
+                (dto, retryCount) -> transactionTemplate.execute(status -> settlementService.executeSettle2Transaction(dto, retryCount)));
+    }
+
+    // 시도 한 번. 재시도 대상 충돌 예외는 그대로 던진다.
+    @FunctionalInterface
+    private interface Attempt {
+        Boolean run(SettlementRequestDto dto, int retryCount);
+    }
+
+    private record Mode(String operation, String strategy, Class<? extends DataAccessException> conflictType, Attempt attempt) {
+    }
+
+    @PreDestroy
+    void shutdown() {
+        backoffScheduler.shutdownNow();
+        virtualExecutor.shutdownNow();
+    }
+
+    public CompletableFuture<Boolean> settle(SettlementRequestDto dto) {
+        return submit(pessimistic, dto);
+    }
+
+    public CompletableFuture<Boolean> settleOptimistic(SettlementRequestDto dto) {
+        return submit(optimistic, dto);
+    }
+
+    private CompletableFuture<Boolean> submit(Mode mode, SettlementRequestDto dto) {
+        log.info("{} 메서드 호출 시작: {}", mode.operation(), dto);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (dto.getAmount() == null || !dto.getAmount().isPositive()) {
+            log.warn("{} 실패: 금액이 유효하지 않습니다. amount={}", mode.operation(), dto.getAmount());
+            result.completeExceptionally(new BusinessException(StatusCode.BAD_REQUEST, "금액은 0원 이상이여야 합니다."));
+            return result;
+        }
+        virtualExecutor.execute(() -> attempt(mode, dto, 0, 0, result));
+        return result;
+    }
+
+    private void complete(Mode mode, CompletableFuture<Boolean> result, int retryCount, boolean settled) {
+        settlementMetrics.retries(mode.operation(), SettlementMetrics.SUCCESS, retryCount);
+        result.complete(settled);
+    }
+
+    private void fail(Mode mode, CompletableFuture<Boolean> result, int retryCount, RuntimeException e) {
+        settlementMetrics.retries(mode.operation(), SettlementMetrics.outcomeOf(e), retryCount);
+        result.completeExceptionally(e);
+    }
+
+    private Boolean settleWithRowLocks(SettlementRequestDto dto, int retryCount) {
+        Expense expense = settlementMetrics.record("virtual", SettlementMetrics.Phase.EXPENSE_READ,
+                () -> expenseCache.searchByExpenseId(dto.getExpenseId()));
+        if (expense == null) {
+            log.warn("settleVirtual 실패: expenseId {}에 해당하는 Expense를 찾을 수 없습니다.", dto.getExpenseId());
+            throw new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 내부 데이터 오류가 발생했습니다. (관련 비용을 찾을 수 없음)");
+        }
+        return transactionTemplate.execute(status -> settlementService.settleWithRowLocks(dto, expense, "virtual", retryCount));
+    }
+
+    private Long receiverOf(SettlementRequestDto dto) {
+        Expense expense = expenseCache.searchByExpenseId(dto.getExpenseId());
+        return expense == null ? null : expense.getMemberId();
+    }
+
+    private void attempt(Mode mode, SettlementRequestDto dto, int retryCount, long previousDelayMs, CompletableFuture<Boolean> result) {
+        List<String> keys = SettlementRetryer.keysOf(dto, receiverOf(dto));
+        try {
+            settlementRetryer.checkPermitted(mode.operation(), keys);
+        } catch (BusinessException e) {
+            fail(mode, result, retryCount, e);
+            return;
+        }
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(mode, result, retryCount, new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 재시도 대기 오류가 발생했습니다."));
+            return;
+        }
+        try {
+            Boolean settled = SettlementEvents.attempt(mode.strategy(), dto.getExpenseId(), dto.getMemberId(), () -> receiverOf(dto), retryCount,
+                    () -> mode.attempt().run(dto, retryCount));
+            settlementRetryer.onSuccess(keys);
+            complete(mode, result, retryCount, Boolean.TRUE.equals(settled));
+        } catch (BusinessException e) {
+            fail(mode, result, retryCount, e);
+        } catch (DataAccessException e) {
+            if (mode.conflictType().isInstance(e)) {
+                scheduleRetry(mode, dto, keys, retryCount, previousDelayMs, result, e);
+                return;
+            }
+            log.error("{} 실패: 알 수 없는 DB 오류 발생 (재시도 대상 아님) - {}", mode.operation(), e.getMessage(), e);
+            fail(mode, result, retryCount, new BusinessException(StatusCode.INTERNAL_ERROR, "정산 처리 중 서버 오류가 발생했습니다."));
+        } catch (RuntimeException e) {
+            fail(mode, result, retryCount, e);
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    // 대기 동안 어떤 스레드도 점유하지 않는다. 시간이 되면 새 가상 스레드에서 다시 시도한다.
+    private void scheduleRetry(Mode mode, SettlementRequestDto dto, List<String> keys, int retryCount, long previousDelayMs,
+                               CompletableFuture<Boolean> result, RuntimeException cause) {
+        long delay;
+        try {
+            delay = settlementRetryer.onConflict(mode.operation(), keys, retryCount, previousDelayMs, cause);
+        } catch (BusinessException e) {
+            fail(mode, result, retryCount, e);
+            return;
+        }
+        backoffScheduler.schedule(
+                () -> virtualExecutor.execute(() -> attempt(mode, dto, retryCount + 1, delay, result)),
+                delay, TimeUnit.MILLISECONDS);
+    }
+}
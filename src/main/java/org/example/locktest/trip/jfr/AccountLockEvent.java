@@ -0,0 +1,39 @@
+package org.example.locktest.trip.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// 계좌 행을 FOR UPDATE 로 잠그는 데 걸린 시간. 같은 스레드의 jdk.SocketRead 와 겹쳐 보면 DB 대기인지 알 수 있다.
+@Name("org.example.locktest.AccountLock")
+@Label("Account Lock Acquire")
+@Description("정산 중 계좌 행 잠금 획득")
+@Category({"lockTest", "Settlement"})
+@Enabled(false)
+@StackTrace(false)
+public class AccountLockEvent extends Event {
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Expense Id")
+    public long expenseId;
+
+    @Label("Sender Id")
+    public long senderId;
+
+    @Label("Receiver Id")
+    public long receiverId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Sharded Receiver")
+    public boolean shardedReceiver;
+
+    @Label("Acquired")
+    public boolean acquired;
+}
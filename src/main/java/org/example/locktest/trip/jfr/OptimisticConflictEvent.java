@@ -0,0 +1,36 @@
+package org.example.locktest.trip.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// 버전 조건 UPDATE 가 기대한 행 수를 바꾸지 못한 경우. 기간은 해당 UPDATE 문 실행 시간이다.
+@Name("org.example.locktest.OptimisticConflict")
+@Label("Optimistic Conflict")
+@Description("낙관적 락 버전 충돌")
+@Category({"lockTest", "Settlement"})
+@Enabled(false)
+@StackTrace(false)
+public class OptimisticConflictEvent extends Event {
+    @Label("Expense Id")
+    public long expenseId;
+
+    @Label("Sender Id")
+    public long senderId;
+
+    @Label("Receiver Id")
+    public long receiverId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Expected Rows")
+    public int expectedRows;
+
+    @Label("Updated Rows")
+    public int updatedRows;
+}
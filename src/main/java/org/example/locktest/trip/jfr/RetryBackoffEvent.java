@@ -0,0 +1,35 @@
+package org.example.locktest.trip.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// 충돌 후 다음 시도까지 스레드가 잠든 구간. 기간은 실제로 잔 시간, plannedDelay 는 정책이 정한 시간이다.
+@Name("org.example.locktest.RetryBackoff")
+@Label("Retry Backoff")
+@Description("정산 재시도 대기")
+@Category({"lockTest", "Settlement"})
+@Enabled(false)
+@StackTrace(false)
+public class RetryBackoffEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Expense Id")
+    public long expenseId;
+
+    @Label("Sender Id")
+    public long senderId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Planned Delay")
+    @Timespan(Timespan.MILLISECONDS)
+    public long plannedDelay;
+}
@@ -0,0 +1,36 @@
+package org.example.locktest.trip.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// 정산 시도 한 번(재시도마다 새 이벤트). 기본은 꺼져 있고 jfr/settlement.jfc 로 켠다.
+@Name("org.example.locktest.SettlementAttempt")
+@Label("Settlement Attempt")
+@Description("정산 시도 한 번의 시작부터 끝까지")
+@Category({"lockTest", "Settlement"})
+@Enabled(false)
+@StackTrace(false)
+public class SettlementAttemptEvent extends Event {
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Expense Id")
+    public long expenseId;
+
+    @Label("Sender Id")
+    public long senderId;
+
+    @Label("Receiver Id")
+    public long receiverId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,86 @@
+package org.example.locktest.trip.jfr;
+
+import org.example.locktest.trip.SettlementMetrics;
+
+import java.util.function.Supplier;
+
+// JFR 이벤트 기록 도우미. 기록 중이 아니면 shouldCommit() 이 false 라 필드도 채우지 않는다.
+public final class SettlementEvents {
+
+    private SettlementEvents() {
+    }
+
+    public static <T> T attempt(String strategy, Long expenseId, Long senderId, Long receiverId, int attempt, Supplier<T> action) {
+        return attempt(strategy, expenseId, senderId, () -> receiverId, attempt, action);
+    }
+
+    // 수취인을 찾는 데 조회가 드는 경로용. 이벤트를 기록할 때만 receiverId 를 구한다.
+    public static <T> T attempt(String strategy, Long expenseId, Long senderId, Supplier<Long> receiverId, int attempt,
+                                Supplier<T> action) {
+        SettlementAttemptEvent event = new SettlementAttemptEvent();
+        event.begin();
+        String outcome = SettlementMetrics.ERROR;
+        try {
+            T result = action.get();
+            outcome = SettlementMetrics.SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = SettlementMetrics.outcomeOf(e);
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.strategy = strategy;
+                event.expenseId = idOf(expenseId);
+                event.senderId = idOf(senderId);
+                event.receiverId = idOf(receiverId.get());
+                event.attempt = attempt;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    public static <T> T lock(String strategy, Long expenseId, Long senderId, Long receiverId, int attempt,
+                             boolean shardedReceiver, Supplier<T> action) {
+        AccountLockEvent event = new AccountLockEvent();
+        event.begin();
+        boolean acquired = false;
+        try {
+            T result = action.get();
+            acquired = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.strategy = strategy;
+                event.expenseId = idOf(expenseId);
+                event.senderId = idOf(senderId);
+                event.receiverId = idOf(receiverId);
+                event.attempt = attempt;
+                event.shardedReceiver = shardedReceiver;
+                event.acquired = acquired;
+                event.commit();
+            }
+        }
+    }
+
+    // begin() 은 UPDATE 직전에 호출해 둔다.
+    public static void conflict(OptimisticConflictEvent event, Long expenseId, Long senderId, Long receiverId, int attempt,
+                                int expectedRows, int updatedRows) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.expenseId = idOf(expenseId);
+            event.senderId = idOf(senderId);
+            event.receiverId = idOf(receiverId);
+            event.attempt = attempt;
+            event.expectedRows = expectedRows;
+            event.updatedRows = updatedRows;
+            event.commit();
+        }
+    }
+
+    private static long idOf(Long id) {
+        return id == null ? 0 : id;
+    }
+}
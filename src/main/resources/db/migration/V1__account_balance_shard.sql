@@ -0,0 +1,10 @@
+-- 뜨거운 수취 계좌의 입금을 K개 행으로 나눠 받는 샤드 테이블
+-- 논리 잔액 = ACCOUNT.balance + SUM(ACCOUNT_BALANCE_SHARD.balance)
+CREATE TABLE ACCOUNT_BALANCE_SHARD
+(
+    member_id  BIGINT         NOT NULL,
+    slot       INT            NOT NULL,
+    balance    DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    updated_at DATETIME       NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (member_id, slot)
+);
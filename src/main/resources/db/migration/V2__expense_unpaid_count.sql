@@ -0,0 +1,15 @@
+-- 비용별 미정산 내역 수. is_payed 를 바꿀 때 같은 트랜잭션에서 줄이고, 0 이 되면 settlement_completed 를 켠다.
+ALTER TABLE EXPENSE
+    ADD COLUMN unpaid_count INT NOT NULL DEFAULT 0;
+
+-- 기존 데이터 채우기
+UPDATE EXPENSE e
+SET e.unpaid_count = (SELECT COUNT(*)
+                      FROM SETTLEMENT_NOTES s
+                      WHERE s.expense_id = e.expense_id
+                        AND (s.is_payed = false OR s.is_payed IS NULL));
+
+UPDATE EXPENSE e
+SET e.settlement_completed = true
+WHERE e.unpaid_count = 0
+  AND EXISTS (SELECT 1 FROM SETTLEMENT_NOTES s WHERE s.expense_id = e.expense_id);
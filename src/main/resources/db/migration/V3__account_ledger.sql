@@ -0,0 +1,15 @@
+-- 원장 모드: 이체를 ACCOUNT.balance 갱신 대신 불변 분개 행(출금/입금)으로 남긴다.
+-- ACCOUNT.balance 가 스냅샷이고, 논리 잔액 = ACCOUNT.balance + SUM(compacted = false 인 분개)
+-- 출금 분개는 송금인 계좌 행을 잠근 채 스냅샷에도 바로 반영하므로 compacted = true 로 들어간다.
+CREATE TABLE ACCOUNT_LEDGER
+(
+    entry_id   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    member_id  BIGINT         NOT NULL,
+    expense_id BIGINT,
+    entry_type VARCHAR(10)    NOT NULL,
+    amount     DECIMAL(15, 2) NOT NULL,
+    compacted  BOOLEAN        NOT NULL DEFAULT FALSE,
+    created_at DATETIME       NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_account_ledger_tail (member_id, compacted, entry_id),
+    INDEX idx_account_ledger_pending (compacted, member_id)
+);
@@ -0,0 +1,14 @@
+-- 정산 내역 키셋 페이지(회원 + 여행, 최신순)와 여행 전체 내보내기에 쓰는 인덱스
+-- created_at 이 NULL 이면 키셋 비교에서 빠지므로 먼저 채우고 NOT NULL 로 막는다.
+UPDATE SETTLEMENT_NOTES
+SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP)
+WHERE created_at IS NULL;
+
+ALTER TABLE SETTLEMENT_NOTES
+    MODIFY created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_settlement_notes_member_trip_created
+    ON SETTLEMENT_NOTES (member_id, trip_id, created_at, settlement_id);
+
+CREATE INDEX idx_settlement_notes_trip_created
+    ON SETTLEMENT_NOTES (trip_id, created_at, settlement_id);
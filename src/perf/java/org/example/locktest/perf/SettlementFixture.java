@@ -0,0 +1,53 @@
+package org.example.locktest.perf;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// 벤치마크와 부하 테스트가 함께 쓰는 정산 데이터.
+// member_id 1..N 계좌와, 회원마다 자신이 결제한 비용(expense_id = member_id)을 하나씩 만든다.
+// 비용마다 결제자를 뺀 모든 회원의 미지불 정산 내역을 넣어 두므로, 어느 송금인이 어느 비용을 정산해도 된다.
+public final class SettlementFixture {
+    public static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000000");
+    private static final BigDecimal SHARE = new BigDecimal("10000");
+
+    private SettlementFixture() {
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int accounts) {
+        jdbcTemplate.update("DELETE FROM SETTLEMENT_NOTES");
+        jdbcTemplate.update("DELETE FROM EXPENSE");
+        jdbcTemplate.update("DELETE FROM ACCOUNT_BALANCE_SHARD");
+        jdbcTemplate.update("DELETE FROM ACCOUNT");
+
+        List<Object[]> accountRows = new ArrayList<>(accounts);
+        List<Object[]> expenseRows = new ArrayList<>(accounts);
+        List<Object[]> noteRows = new ArrayList<>(accounts * (accounts - 1));
+        for (long memberId = 1; memberId <= accounts; memberId++) {
+            accountRows.add(new Object[]{memberId, memberId, "member" + memberId, "110-" + memberId, "KB", INITIAL_BALANCE});
+            expenseRows.add(new Object[]{memberId, 1L, memberId, "expense" + memberId, SHARE, "SEOUL", accounts - 1});
+            for (long debtorId = 1; debtorId <= accounts; debtorId++) {
+                if (debtorId != memberId) {
+                    noteRows.add(new Object[]{memberId, 1L, debtorId, SHARE});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO ACCOUNT (account_id, member_id, name, account_number, bank_name, balance, version) VALUES (?, ?, ?, ?, ?, ?, 0)",
+                accountRows);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO EXPENSE (expense_id, trip_id, member_id, expense_name, amount, location, unpaid_count) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                expenseRows);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO SETTLEMENT_NOTES (expense_id, trip_id, member_id, share_amount, is_payed) VALUES (?, ?, ?, ?, false)",
+                noteRows);
+    }
+
+    // 정산하면 내역이 지불 처리되므로, 같은 송금인과 비용을 다시 고르면 미지불로 되돌려 둔다.
+    public static void resetNote(JdbcTemplate jdbcTemplate, long expenseId, long memberId) {
+        jdbcTemplate.update("UPDATE SETTLEMENT_NOTES SET is_payed = false WHERE expense_id = ? AND member_id = ? AND is_payed = true",
+                expenseId, memberId);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.locktest.perf;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+// 1..n 중 하나를 Zipf(skew) 분포로 뽑는다. skew 0 이면 균등 분포, 클수록 앞쪽 키에 몰린다.
+// JMH 벤치마크와 부하 테스트가 같은 분포를 쓰도록 perf 소스셋에 하나만 둔다.
+public final class ZipfSampler {
+    private final int n;
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double skew) {
+        this.n = n;
+        this.cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public long next() {
+        return next(ThreadLocalRandom.current());
+    }
+
+    // 시드를 고정한 난수로 뽑으면 같은 데이터를 다시 만들 수 있다.
+    public long next(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return (index >= 0 ? index : -index - 1) + 1L;
+    }
+
+    // excluded 를 뺀 나머지에서 균등 분포로 뽑는다.
+    public long nextOtherThan(long excluded) {
+        long value = ThreadLocalRandom.current().nextLong(1, n);
+        return value >= excluded ? value + 1 : value;
+    }
+}
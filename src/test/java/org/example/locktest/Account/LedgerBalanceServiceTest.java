@@ -0,0 +1,63 @@
+package org.example.locktest.Account;
+
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class LedgerBalanceServiceTest {
+
+    private final AccountMapper accountMapper = mock(AccountMapper.class);
+    private final AccountLedgerMapper ledgerMapper = mock(AccountLedgerMapper.class);
+
+    private LedgerBalanceService service(boolean enabled) {
+        return new LedgerBalanceService(accountMapper, ledgerMapper, mock(PlatformTransactionManager.class), enabled, 500, 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transferDebitsSnapshotAndJournalsPendingCredit() {
+        service(true).transfer(1L, 2L, 10L, Money.of(3000));
+
+        verify(accountMapper).addBalance(1L, Money.of(-3000));
+        verify(accountMapper, never()).addBalance(eq(2L), any());
+        verify(ledgerMapper).insertEntries(argThat(entries -> {
+            LedgerEntry debit = ((List<LedgerEntry>) entries).get(0);
+            LedgerEntry credit = ((List<LedgerEntry>) entries).get(1);
+            return debit.getEntryType() == LedgerEntry.Type.DEBIT && debit.getCompacted()
+                    && debit.getAmount().equals(Money.of(-3000))
+                    && credit.getEntryType() == LedgerEntry.Type.CREDIT && !credit.getCompacted()
+                    && credit.getMemberId().equals(2L);
+        }));
+    }
+
+    @Test
+    void compactFoldsExactlyTheLockedEntries() {
+        when(accountMapper.searchAccountByMemberIdForUpdate(2L)).thenReturn(Account.builder().memberId(2L).balance(Money.ZERO).build());
+        when(ledgerMapper.searchPendingByMemberIdForUpdate(2L, 500)).thenReturn(List.of(
+                LedgerEntry.builder().entryId(7L).memberId(2L).amount(Money.of(1000)).build(),
+                LedgerEntry.builder().entryId(9L).memberId(2L).amount(Money.of(2500)).build()));
+
+        assertEquals(Money.of(3500), service(true).compact(2L));
+
+        verify(accountMapper).addBalance(2L, Money.of(3500));
+        verify(ledgerMapper).markCompacted(List.of(7L, 9L));
+    }
+
+    @Test
+    void disabledLedgerTouchesNothing() {
+        LedgerBalanceService service = service(false);
+
+        assertEquals(Money.ZERO, service.pending(2L));
+        assertEquals(Money.ZERO, service.compact(2L));
+        service.compactPending();
+
+        verifyNoInteractions(accountMapper, ledgerMapper);
+        verify(ledgerMapper, never()).markCompacted(anyList());
+    }
+}
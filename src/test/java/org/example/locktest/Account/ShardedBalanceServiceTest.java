@@ -0,0 +1,99 @@
+package org.example.locktest.Account;
+
+import org.example.locktest.money.Money;
+import org.example.locktest.trip.ExpenseCache;
+import org.example.locktest.trip.SettlementRequestDto;
+import org.example.locktest.trip.SettlementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 분할 잔액을 임베디드 H2 에 쌓고 합친다. 주기 합산이 끼어들지 않도록 합산 주기를 길게 둔다.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "settlement.shard.hot-member-ids=1",
+        "settlement.shard.count=4",
+        "settlement.shard.fold-interval-ms=3600000"})
+@ActiveProfiles("h2")
+class ShardedBalanceServiceTest {
+
+    @Autowired
+    private ShardedBalanceService shardedBalanceService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private ExpenseCache expenseCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM ACCOUNT_BALANCE_SHARD");
+        jdbcTemplate.update("DELETE FROM ACCOUNT");
+        for (long memberId = 1; memberId <= 2; memberId++) {
+            jdbcTemplate.update("INSERT INTO ACCOUNT (member_id, name, account_number, bank_name, balance) VALUES (?, ?, ?, 'KB', 1000)",
+                    memberId, "member" + memberId, "110-" + memberId);
+        }
+    }
+
+    @Test
+    void foldInMovesEveryShardIntoAccountAndZeroesShards() {
+        for (int i = 1; i <= 20; i++) {
+            shardedBalanceService.credit(1L, Money.of(i * 100L));
+        }
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ACCOUNT_BALANCE_SHARD WHERE member_id = 1", Integer.class) > 1);
+        assertEquals(Money.of(1000 + 21000), shardedBalanceService.logicalBalance(1L));
+
+        assertEquals(Money.of(21000), shardedBalanceService.foldIn(1L));
+
+        assertEquals(0, new BigDecimal("22000").compareTo(balanceOf(1L)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ACCOUNT_BALANCE_SHARD WHERE member_id = 1 AND balance <> 0", Integer.class));
+        assertEquals(Money.of(22000), shardedBalanceService.logicalBalance(1L));
+        assertEquals(Money.ZERO, shardedBalanceService.foldIn(1L));
+        assertEquals(0, new BigDecimal("22000").compareTo(balanceOf(1L)));
+    }
+
+    @Test
+    void coldAccountAndMissingAccountAreLeftAlone() {
+        assertFalse(shardedBalanceService.isHot(2L));
+        assertEquals(Money.of(1000), shardedBalanceService.logicalBalance(2L));
+        assertNull(shardedBalanceService.logicalBalance(99L));
+        assertEquals(Money.ZERO, shardedBalanceService.foldIn(99L));
+    }
+
+    @Test
+    void settle2FoldsShardsIntoShortHotSenderAndKeepsVersionCheck() {
+        jdbcTemplate.update("DELETE FROM SETTLEMENT_NOTES");
+        jdbcTemplate.update("DELETE FROM EXPENSE");
+        jdbcTemplate.update("INSERT INTO EXPENSE (expense_id, trip_id, member_id, expense_name, amount, location, unpaid_count)"
+                + " VALUES (1, 1, 2, 'dinner', 10000, 'SEOUL', 1)");
+        jdbcTemplate.update("INSERT INTO SETTLEMENT_NOTES (expense_id, trip_id, member_id, share_amount, is_payed) VALUES (1, 1, 1, 5000, false)");
+        expenseCache.invalidate(1L);
+        shardedBalanceService.credit(1L, Money.of(20000));
+
+        // 본 계좌 1000원으로는 모자라 샤드를 합친 뒤, 합친 뒤의 버전으로 출금한다.
+        assertEquals(0, settlementService.settle2(new SettlementRequestDto(1L, 1L, Money.of(5000))));
+
+        assertEquals(0, new BigDecimal("16000").compareTo(balanceOf(1L)));
+        assertEquals(0, new BigDecimal("6000").compareTo(balanceOf(2L)));
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT is_payed FROM SETTLEMENT_NOTES WHERE expense_id = 1 AND member_id = 1", Boolean.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ACCOUNT_BALANCE_SHARD WHERE member_id = 1 AND balance <> 0", Integer.class));
+    }
+
+    private BigDecimal balanceOf(long memberId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM ACCOUNT WHERE member_id = ?", BigDecimal.class, memberId);
+    }
+}
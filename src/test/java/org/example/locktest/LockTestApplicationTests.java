@@ -2,8 +2,11 @@ package org.example.locktest;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
+// 운영 DB 없이 임베디드 H2 로 컨텍스트만 띄운다. MySQL 전용 마이그레이션은 h2 프로필에서 돌지 않는다.
 @SpringBootTest
+@ActiveProfiles("h2")
 class LockTestApplicationTests {
 
 	@Test
@@ -0,0 +1,133 @@
+package org.example.locktest.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 주 DB 와 복제본을 임베디드 H2 두 개로 띄우고, 각 DB 의 표식 행으로 어느 쪽에서 읽었는지 확인한다.
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate routedJdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE REPLICA_LAG (seconds_behind INT)");
+        replicaJdbc.update("INSERT INTO REPLICA_LAG VALUES (0)");
+
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setLagQuery("SELECT seconds_behind AS Seconds_Behind_Source FROM REPLICA_LAG");
+        properties.setMaxLagMs(1000);
+        monitor = new ReplicaLagMonitor(replica, properties, new SimpleMeterRegistry());
+        monitor.check();
+
+        DataSource routing = ReplicaDataSourceConfig.routingDataSource(primary, replica, monitor);
+        routedJdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE MARKER (name VARCHAR(16))");
+        jdbc.update("INSERT INTO MARKER VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String marker() {
+        return routedJdbc.queryForObject("SELECT name FROM MARKER", String.class);
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+
+    @Test
+    void writesAndReadsInsideReadWriteTransactionStayOnPrimary() {
+        Integer seen = readWrite.execute(status -> {
+            routedJdbc.update("INSERT INTO MARKER VALUES ('written')");
+            return routedJdbc.queryForObject("SELECT COUNT(*) FROM MARKER", Integer.class);
+        });
+        assertEquals(2, seen);
+        assertEquals(2, primaryJdbc.queryForObject("SELECT COUNT(*) FROM MARKER", Integer.class));
+        assertEquals(1, replicaJdbc.queryForObject("SELECT COUNT(*) FROM MARKER", Integer.class));
+    }
+
+    @Test
+    void unmarkedReadOutsideTransactionUsesPrimary() {
+        assertEquals("primary", marker());
+    }
+
+    @Test
+    void replicaReadAnnotationRoutesOnlyOutsideReadWriteTransaction() {
+        MarkerReader reader = proxied(new MarkerReader(routedJdbc));
+
+        assertEquals("replica", reader.read());
+        assertEquals("primary", readWrite.execute(status -> reader.read()));
+        assertFalse(ReplicaReadContext.isActive());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replicaJdbc.update("UPDATE REPLICA_LAG SET seconds_behind = 5");
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(5000, monitor.lagMillis());
+        assertEquals("primary", readOnly.execute(status -> marker()));
+
+        replicaJdbc.update("UPDATE REPLICA_LAG SET seconds_behind = 0");
+        monitor.check();
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+
+    @Test
+    void stoppedReplicationFallsBackToPrimary() {
+        replicaJdbc.update("UPDATE REPLICA_LAG SET seconds_behind = NULL");
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", readOnly.execute(status -> marker()));
+    }
+
+    private static MarkerReader proxied(MarkerReader target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new ReplicaReadAspect());
+        return factory.getProxy();
+    }
+
+    static class MarkerReader {
+        private final JdbcTemplate jdbc;
+
+        MarkerReader(JdbcTemplate jdbc) {
+            this.jdbc = jdbc;
+        }
+
+        @ReplicaRead
+        public String read() {
+            return jdbc.queryForObject("SELECT name FROM MARKER", String.class);
+        }
+    }
+}
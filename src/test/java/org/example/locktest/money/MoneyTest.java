@@ -0,0 +1,59 @@
+package org.example.locktest.money;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+            .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer()));
+
+    @Test
+    void arithmeticIsOverflowChecked() {
+        assertEquals(Money.of(3500), Money.of(1000).plus(Money.of(2500)));
+        assertEquals(Money.of(-1500), Money.of(1000).minus(Money.of(2500)));
+        assertThrows(ArithmeticException.class, () -> Money.of(Long.MAX_VALUE).plus(Money.of(1)));
+        assertThrows(ArithmeticException.class, () -> Money.of(Long.MIN_VALUE).negate());
+        assertEquals(Money.of(3500), Money.sum(List.of(Money.of(1000), Money.of(2500))));
+        assertThrows(ArithmeticException.class, () -> Money.sum(List.of(Money.of(Long.MAX_VALUE), Money.of(1))));
+    }
+
+    @Test
+    void decimalColumnsConvertOnlyWithoutFraction() {
+        assertEquals(Money.of(64333), Money.of(new BigDecimal("64333.00")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("10.50")));
+        assertSame(Money.ZERO, Money.of(new BigDecimal("0.00")));
+    }
+
+    @Test
+    void typeHandlerRejectsFractionInsteadOfTruncating() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getBigDecimal("balance")).thenReturn(new BigDecimal("64333.00"));
+        when(rs.getBigDecimal("share_amount")).thenReturn(new BigDecimal("10.50"));
+        MoneyTypeHandler handler = new MoneyTypeHandler();
+
+        assertEquals(Money.of(64333), handler.getNullableResult(rs, "balance"));
+        assertThrows(ArithmeticException.class, () -> handler.getNullableResult(rs, "share_amount"));
+        assertNull(handler.getNullableResult(rs, "amount"));
+    }
+
+    @Test
+    void jsonUsesWholeWon() throws Exception {
+        assertEquals("64333", objectMapper.writeValueAsString(Money.of(64333)));
+        assertEquals(Money.of(64333), objectMapper.readValue("64333", Money.class));
+        assertEquals(Money.of(64333), objectMapper.readValue("\"64333\"", Money.class));
+        assertEquals(Money.of(64333), objectMapper.readValue("64333.00", Money.class));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("10.5", Money.class));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("true", Money.class));
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.locktest.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SqlProfilingInterceptorTest {
+
+    private final Configuration configuration = new Configuration();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlProfilingInterceptor interceptor =
+            new SqlProfilingInterceptor(registry, Set.of("AccountMapper", "SettlementMapper"), 1.0, 10_000);
+
+    @Test
+    void recordsLatencyAndRowsPerStatement() throws Exception {
+        Executor executor = mock(Executor.class);
+        when(executor.update(any(), any())).thenReturn(2);
+
+        for (int i = 0; i < 3; i++) {
+            profiled(executor).update(statement("org.example.locktest.Account.AccountMapper.transactionBalance"), null);
+        }
+
+        StatementStats stats = interceptor.snapshot().get(0);
+        assertEquals("AccountMapper.transactionBalance", stats.statement());
+        assertEquals(3, stats.calls());
+        assertEquals(3, stats.sampled());
+        assertEquals(2.0, stats.meanRows());
+        assertEquals(0, stats.errors());
+    }
+
+    @Test
+    void countsLockTimeoutsAndDeadlocks() throws Exception {
+        Executor executor = mock(Executor.class);
+        when(executor.update(any(), any()))
+                .thenThrow(new SQLException("Lock wait timeout exceeded", "40001", 1205))
+                .thenThrow(new SQLException("Deadlock found", "40001", 1213));
+
+        String id = "org.example.locktest.trip.SettlementMapper.updateIsPayedByExpenseIdAndMemberID";
+        assertThrows(SQLException.class, () -> profiled(executor).update(statement(id), null));
+        assertThrows(SQLException.class, () -> profiled(executor).update(statement(id), null));
+
+        StatementStats stats = interceptor.snapshot().get(0);
+        assertEquals(2, stats.errors());
+        assertEquals(1, stats.lockTimeouts());
+        assertEquals(1, stats.deadlocks());
+    }
+
+    @Test
+    void ignoresMappersOutsideTheList() throws Exception {
+        Executor executor = mock(Executor.class);
+        when(executor.update(any(), any())).thenReturn(1);
+
+        profiled(executor).update(statement("org.example.locktest.Account.AccountBalanceShardMapper.credit"), null);
+
+        assertEquals(List.of(), interceptor.snapshot());
+        assertTrue(registry.find("sql.statement").timers().isEmpty());
+    }
+
+    private Executor profiled(Executor executor) {
+        return (Executor) Plugin.wrap(executor, interceptor);
+    }
+
+    private MappedStatement statement(String id) {
+        return new MappedStatement.Builder(
+                configuration, id, new StaticSqlSource(configuration, "UPDATE ACCOUNT SET balance = balance"), SqlCommandType.UPDATE).build();
+    }
+}
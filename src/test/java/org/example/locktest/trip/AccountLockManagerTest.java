@@ -0,0 +1,119 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLockManagerTest {
+
+    @Test
+    void sameAccountIsMutuallyExclusive() throws InterruptedException {
+        AccountLockManager lockManager = new AccountLockManager(64, 5000);
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch endLatch = new CountDownLatch(threadCount);
+        AtomicInteger inCriticalSection = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 200; j++) {
+                        try (AccountLockManager.Locks ignored = lockManager.lock(3L, 1L)) {
+                            maxObserved.accumulateAndGet(inCriticalSection.incrementAndGet(), Math::max);
+                            inCriticalSection.decrementAndGet();
+                        }
+                    }
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+
+        assertTrue(endLatch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(1, maxObserved.get());
+    }
+
+    @Test
+    void oppositeOrderDoesNotDeadlock() throws InterruptedException {
+        AccountLockManager lockManager = new AccountLockManager(64, 5000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch endLatch = new CountDownLatch(2);
+
+        executor.submit(() -> {
+            for (int j = 0; j < 1000; j++) {
+                try (AccountLockManager.Locks ignored = lockManager.lock(1L, 2L)) {
+                    Thread.onSpinWait();
+                }
+            }
+            endLatch.countDown();
+        });
+        executor.submit(() -> {
+            for (int j = 0; j < 1000; j++) {
+                try (AccountLockManager.Locks ignored = lockManager.lock(2L, 1L)) {
+                    Thread.onSpinWait();
+                }
+            }
+            endLatch.countDown();
+        });
+
+        assertTrue(endLatch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void sameStripeIsLockedOnce() {
+        AccountLockManager lockManager = new AccountLockManager(4, 100);
+        assertEquals(lockManager.stripeOf(1L), lockManager.stripeOf(5L));
+
+        try (AccountLockManager.Locks ignored = lockManager.lock(1L, 5L)) {
+            assertNotNull(ignored);
+        }
+        try (AccountLockManager.Locks ignored = lockManager.lock(5L)) {
+            assertNotNull(ignored);
+        }
+    }
+
+    @Test
+    void waitIsBounded() throws Exception {
+        AccountLockManager lockManager = new AccountLockManager(64, 100);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (AccountLockManager.Locks ignored = lockManager.lock(7L)) {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        // 스트라이프 6 은 7 보다 앞이라 먼저 잡힌 뒤 7 에서 시간 초과가 난다.
+        assertTrue(lockManager.stripeOf(6L) < lockManager.stripeOf(7L));
+        BusinessException e = assertThrows(BusinessException.class, () -> lockManager.lock(6L, 7L));
+        assertEquals(StatusCode.SERVICE_UNAVAILABLE, e.getStatusCode());
+
+        // 실패한 시도가 먼저 잡은 스트라이프를 풀어줘야 한다. 락이 재진입 가능하므로 다른 스레드에서 확인한다.
+        CompletableFuture<Boolean> other = CompletableFuture.supplyAsync(() -> {
+            try (AccountLockManager.Locks ignored = lockManager.lock(6L)) {
+                return true;
+            }
+        });
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        holder.join();
+    }
+}
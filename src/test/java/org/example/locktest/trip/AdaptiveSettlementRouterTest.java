@@ -0,0 +1,138 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdaptiveSettlementRouterTest {
+
+    private static final long PAYER = 100L;
+
+    private final PessimisticSettlementStrategy pessimistic = mock(PessimisticSettlementStrategy.class);
+    private final OptimisticSettlementStrategy optimistic = mock(OptimisticSettlementStrategy.class);
+    private final ExpenseCache expenseCache = mock(ExpenseCache.class);
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    // 윈도우 1초(100ms x 10), 요청 5건 이상 또는 충돌 비율 0.5 이상이면 뜨겁다, 최소 유지 3초
+    private final AdaptiveSettlementRouter router =
+            new AdaptiveSettlementRouter(pessimistic, optimistic, expenseCache, 1, 10, 5, 0.5, 3_000) {
+                @Override
+                long now() {
+                    return clock.get();
+                }
+            };
+
+    @BeforeEach
+    void setUp() {
+        when(pessimistic.name()).thenReturn("pessimistic");
+        when(optimistic.name()).thenReturn("optimistic");
+        when(expenseCache.searchByExpenseId(any())).thenAnswer(invocation ->
+                Expense.builder().expenseId(invocation.getArgument(0)).memberId(PAYER).build());
+    }
+
+    @Test
+    void coldKeysGoOptimistic() {
+        RoutingDecision decision = router.settle(request(1L, 1L));
+
+        assertFalse(decision.isPessimistic());
+        verify(optimistic).settle(any());
+        verify(pessimistic, never()).settle(any());
+    }
+
+    @Test
+    void sharedReceiverMakesDistinctExpensesAndSendersHot() {
+        // 송금인과 비용은 전부 다르지만 수취인(결제자)이 같다.
+        for (long i = 1; i <= 5; i++) {
+            assertFalse(router.settle(request(i, i)).isPessimistic());
+        }
+
+        RoutingDecision decision = router.settle(request(6L, 6L));
+
+        assertTrue(decision.isPessimistic());
+        assertTrue(decision.getReason().contains("account:" + PAYER), decision.getReason());
+    }
+
+    @Test
+    void conflictRatioMakesKeyHot() {
+        when(optimistic.settle(any())).thenReturn(1);
+        router.settle(request(1L, 1L));
+
+        assertTrue(router.settle(request(1L, 2L)).isPessimistic());
+    }
+
+    @Test
+    void hotKeyStaysPessimisticForMinDwellAfterConflictsCoolDown() {
+        when(optimistic.settle(any())).thenReturn(1);
+        router.settle(request(1L, 1L));
+        assertTrue(router.settle(request(1L, 2L)).isPessimistic());
+
+        // 비관적 경로가 재시도 없이 끝나면 충돌이 0 으로 잡혀 윈도우가 지난 뒤 충돌 비율은 식는다.
+        clock.addAndGet(1_500);
+        for (long member = 3; member <= 4; member++) {
+            RoutingDecision decision = router.settle(request(1L, member));
+            assertTrue(decision.isPessimistic());
+            assertTrue(decision.getReason().startsWith("pinned"), decision.getReason());
+        }
+
+        clock.addAndGet(2_000);
+        assertFalse(router.settle(request(1L, 5L)).isPessimistic());
+    }
+
+    @Test
+    void pessimisticRetriesAreReportedAndKeepKeyHot() {
+        when(optimistic.settle(any())).thenReturn(1);
+        router.settle(request(1L, 1L));
+        clock.addAndGet(600);
+        when(pessimistic.settle(any())).thenReturn(2);
+
+        RoutingDecision decision = router.settle(request(1L, 2L));
+
+        assertTrue(decision.isPessimistic());
+        assertEquals(2, decision.getRetries());
+        // 낙관적 경로의 충돌이 윈도우에서 빠져도 비관적 경로의 잠금 재시도가 충돌로 남아 있어 고정이 아니라 다시 뜨겁다고 본다.
+        clock.addAndGet(600);
+        String reason = router.settle(request(1L, 3L)).getReason();
+        assertTrue(reason.startsWith("hot expense:1"), reason);
+    }
+
+    @Test
+    void recentDecisionsHoldRetriesOfFinishedAttempts() {
+        when(optimistic.settle(any())).thenReturn(3);
+
+        RoutingDecision returned = router.settle(request(1L, 1L));
+
+        RoutingDecision published = router.snapshot().getRecentDecisions().getLast();
+        assertEquals(3, returned.getRetries());
+        assertEquals(3, published.getRetries());
+        assertEquals(returned.getDecidedAt(), published.getDecidedAt());
+    }
+
+    @Test
+    void badRequestIsNotCountedAsConflict() {
+        when(optimistic.settle(any())).thenThrow(new BusinessException(StatusCode.BAD_REQUEST, "정산 대상 회원이 아닙니다."));
+        assertThrows(BusinessException.class, () -> router.settle(request(1L, 1L)));
+
+        reset(optimistic);
+        when(optimistic.name()).thenReturn("optimistic");
+        assertFalse(router.settle(request(1L, 2L)).isPessimistic());
+    }
+
+    @Test
+    void retryBudgetExhaustionCountsAsConflict() {
+        when(optimistic.settle(any())).thenThrow(new BusinessException(StatusCode.INTERNAL_ERROR, "재시도 한도 초과"));
+        assertThrows(BusinessException.class, () -> router.settle(request(1L, 1L)));
+
+        assertTrue(router.settle(request(1L, 2L)).isPessimistic());
+    }
+
+    private static SettlementRequestDto request(Long expenseId, Long memberId) {
+        return SettlementRequestDto.builder().expenseId(expenseId).memberId(memberId).build();
+    }
+}
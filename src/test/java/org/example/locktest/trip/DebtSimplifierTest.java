@@ -0,0 +1,62 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebtSimplifierTest {
+
+    @Test
+    void opposingDebtsCancelOut() {
+        List<TripDebt> debts = List.of(
+                debt(1L, 2L, 10_000),
+                debt(2L, 1L, 4_000),
+                debt(3L, 3L, 7_000));
+
+        Map<Long, Money> balances = DebtSimplifier.netBalances(debts);
+        List<NetTransfer> transfers = DebtSimplifier.simplify(balances);
+
+        assertEquals(Money.ZERO, balances.get(3L));
+        assertEquals(List.of(new NetTransfer(1L, 2L, Money.of(6_000))), transfers);
+    }
+
+    @Test
+    void largeTripCollapsesToFewerThanMemberCountTransfers() {
+        int members = 12;
+        Random random = new Random(7);
+        List<TripDebt> debts = new ArrayList<>();
+        for (int expense = 0; expense < 200; expense++) {
+            long payer = 1 + random.nextInt(members);
+            for (long member = 1; member <= members; member++) {
+                if (member != payer) {
+                    debts.add(debt(member, payer, 1_000 + random.nextInt(50_000)));
+                }
+            }
+        }
+
+        Map<Long, Money> balances = DebtSimplifier.netBalances(debts);
+        List<NetTransfer> transfers = DebtSimplifier.simplify(balances);
+
+        assertTrue(transfers.size() <= members - 1, "transfers: " + transfers.size());
+        // 이체를 모두 적용하면 모든 회원의 순 잔액이 0 이 된다.
+        Map<Long, Long> applied = new HashMap<>();
+        for (NetTransfer transfer : transfers) {
+            assertTrue(transfer.amount().isPositive());
+            applied.merge(transfer.fromMemberId(), -transfer.amount().minorUnits(), Long::sum);
+            applied.merge(transfer.toMemberId(), transfer.amount().minorUnits(), Long::sum);
+        }
+        balances.forEach((memberId, balance) ->
+                assertEquals(balance.minorUnits(), applied.getOrDefault(memberId, 0L), "member " + memberId));
+    }
+
+    private static TripDebt debt(long debtorId, long creditorId, long amount) {
+        return TripDebt.builder().debtorId(debtorId).creditorId(creditorId).amount(Money.of(amount)).build();
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.locktest.trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExpenseCacheTest {
+
+    private final ExpenseMapper expenseMapper = mock(ExpenseMapper.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void repeatedReadsHitCache() {
+        when(expenseMapper.searchByExpenseId(3L)).thenReturn(Expense.builder().expenseId(3L).memberId(1L).build());
+        ExpenseCache cache = new ExpenseCache(expenseMapper, meterRegistry, true, 100, 60);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1L, cache.searchByExpenseId(3L).getMemberId());
+        }
+
+        verify(expenseMapper, times(1)).searchByExpenseId(3L);
+        assertEquals(4, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+        assertEquals(4, meterRegistry.get("cache.gets").tag("cache", "expense").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "expense").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void invalidateReloadsAndMissingExpenseIsNotCached() {
+        when(expenseMapper.searchByExpenseId(3L)).thenReturn(Expense.builder().expenseId(3L).memberId(1L).build());
+        ExpenseCache cache = new ExpenseCache(expenseMapper, meterRegistry, true, 100, 60);
+
+        cache.searchByExpenseId(3L);
+        cache.invalidate(3L);
+        cache.searchByExpenseId(3L);
+        assertNull(cache.searchByExpenseId(99L));
+        assertNull(cache.searchByExpenseId(99L));
+
+        verify(expenseMapper, times(2)).searchByExpenseId(3L);
+        verify(expenseMapper, times(2)).searchByExpenseId(99L);
+    }
+
+    @Test
+    void disabledCacheAlwaysReadsThrough() {
+        ExpenseCache cache = new ExpenseCache(expenseMapper, meterRegistry, false, 100, 60);
+
+        cache.searchByExpenseId(3L);
+        cache.searchByExpenseId(3L);
+
+        verify(expenseMapper, times(2)).searchByExpenseId(3L);
+        assertFalse(cache.stats().isEnabled());
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.locktest.trip;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// 비용 등록은 BATCH 세션의 매퍼로 비용 한 행과 참여 회원별 정산 내역을 넣는다. 매퍼는 세션 설정에서 꺼내므로 설정만 흉내 낸다.
+class ExpenseServiceTest {
+
+    private final SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class, RETURNS_DEEP_STUBS);
+    private final ExpenseMapper expenseMapper = mock(ExpenseMapper.class);
+    private final SettlementMapper settlementMapper = mock(SettlementMapper.class);
+    private ExpenseService service;
+
+    @BeforeEach
+    void setUp() {
+        when(sqlSessionFactory.getConfiguration().getMapper(eq(ExpenseMapper.class), any())).thenReturn(expenseMapper);
+        when(sqlSessionFactory.getConfiguration().getMapper(eq(SettlementMapper.class), any())).thenReturn(settlementMapper);
+        service = new ExpenseService(sqlSessionFactory, 50);
+    }
+
+    private static ExpenseCreateRequestDto request(long amount, Long... memberIds) {
+        return ExpenseCreateRequestDto.builder()
+                .tripId(7L)
+                .memberId(2L)
+                .expenseName("저녁")
+                .amount(Money.of(amount))
+                .memberIds(Arrays.asList(memberIds))
+                .build();
+    }
+
+    @Test
+    void createsExpenseAndNotesWithPayerShareAlreadyPaid() {
+        when(expenseMapper.insert(any())).thenAnswer(invocation -> {
+            // useGeneratedKeys 로 키가 채워지는 것을 흉내 낸다.
+            ReflectionTestUtils.setField(invocation.<Expense>getArgument(0), "expenseId", 100L);
+            return 1;
+        });
+
+        ExpenseCreateResult result = service.create(request(10_000, 1L, 2L, 3L));
+
+        ArgumentCaptor<Expense> expense = ArgumentCaptor.forClass(Expense.class);
+        verify(expenseMapper).insert(expense.capture());
+        assertEquals(2, expense.getValue().getUnpaidCount());
+        assertFalse(expense.getValue().getSettlementCompleted());
+
+        ArgumentCaptor<SettlementNotes> notes = ArgumentCaptor.forClass(SettlementNotes.class);
+        verify(settlementMapper, times(3)).insert(notes.capture());
+        for (SettlementNotes note : notes.getAllValues()) {
+            assertEquals(100L, note.getExpenseId());
+            assertEquals(7L, note.getTripId());
+            assertEquals(note.getMemberId().equals(2L), note.getIsPayed());
+        }
+        assertEquals(100L, result.getExpenseId());
+        assertEquals(Money.of(3_334), result.getShares().get(2L));
+    }
+
+    @Test
+    void rejectsDuplicateMembersWithoutWriting() {
+        BusinessException e = assertThrows(BusinessException.class, () -> service.create(request(10_000, 1L, 2L, 1L)));
+
+        assertEquals(StatusCode.BAD_REQUEST, e.getStatusCode());
+        verifyNoInteractions(expenseMapper, settlementMapper);
+    }
+
+    @Test
+    void rejectsTooManyMembers() {
+        Long[] memberIds = new Long[51];
+        Arrays.setAll(memberIds, i -> (long) i + 1);
+
+        assertThrows(BusinessException.class, () -> service.create(request(1_000_000, memberIds)));
+        verifyNoInteractions(expenseMapper, settlementMapper);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final SettlementRequestDto dto = new SettlementRequestDto(3L, 1L, Money.of(64333));
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(100, 60);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> store.execute("key-1", dto, () -> {
+                executions.incrementAndGet();
+                await(release);
+                return true;
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, executions.get());
+
+        assertTrue(store.execute("key-1", dto, () -> false));
+        IdempotencyStats stats = store.stats();
+        assertEquals(1, stats.getMisses());
+        assertEquals(4, stats.getCompletedHits() + stats.getInFlightJoins());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        IdempotencyStore store = new IdempotencyStore(100, 60);
+        store.execute("key-2", dto, () -> true);
+
+        SettlementRequestDto other = new SettlementRequestDto(4L, 1L, Money.of(64333));
+        BusinessException e = assertThrows(BusinessException.class, () -> store.execute("key-2", other, () -> true));
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void failureIsNotCached() {
+        IdempotencyStore store = new IdempotencyStore(100, 60);
+        assertThrows(BusinessException.class, () -> store.execute("key-3", dto, () -> {
+            throw new BusinessException(StatusCode.INTERNAL_ERROR);
+        }));
+
+        assertTrue(store.execute("key-3", dto, () -> true));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 일괄 정산을 임베디드 H2 에 돌려 잔액과 정산 내역을 확인한다.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class SettlementBatchTest {
+
+    private static final long EXPENSE_ID = 1L;
+    private static final long PAYER = 1L;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private ExpenseCache expenseCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM SETTLEMENT_NOTES");
+        jdbcTemplate.update("DELETE FROM EXPENSE");
+        jdbcTemplate.update("DELETE FROM ACCOUNT");
+        for (long memberId = 1; memberId <= 3; memberId++) {
+            jdbcTemplate.update("INSERT INTO ACCOUNT (member_id, name, account_number, bank_name, balance) VALUES (?, ?, ?, 'KB', 100000)",
+                    memberId, "member" + memberId, "110-" + memberId);
+        }
+        jdbcTemplate.update("INSERT INTO EXPENSE (expense_id, trip_id, member_id, expense_name, amount, location, unpaid_count)"
+                + " VALUES (?, 1, ?, 'dinner', 30000, 'SEOUL', 2)", EXPENSE_ID, PAYER);
+        for (long memberId = 1; memberId <= 3; memberId++) {
+            jdbcTemplate.update("INSERT INTO SETTLEMENT_NOTES (expense_id, trip_id, member_id, share_amount, is_payed) VALUES (?, 1, ?, 10000, ?)",
+                    EXPENSE_ID, memberId, memberId == PAYER);
+        }
+        expenseCache.invalidate(EXPENSE_ID);
+    }
+
+    @Test
+    void secondBatchOverSameNotesMovesNoMoney() {
+        assertEquals(2, settlementService.settleBatch(batch(2L, 3L)));
+        assertBalances(120000, 90000, 90000);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> settlementService.settleBatch(batch(2L, 3L)));
+
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+        assertBalances(120000, 90000, 90000);
+        assertEquals(0, settlementService.settleBatch(new SettlementBatchRequestDto(EXPENSE_ID, null)));
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT settlement_completed FROM EXPENSE WHERE expense_id = ?", Boolean.class, EXPENSE_ID));
+    }
+
+    @Test
+    void batchWithOnePaidNoteRollsBackTheOthers() {
+        assertEquals(1, settlementService.settleBatch(batch(2L)));
+
+        assertThrows(BusinessException.class, () -> settlementService.settleBatch(batch(2L, 3L)));
+
+        assertBalances(110000, 90000, 100000);
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT is_payed FROM SETTLEMENT_NOTES WHERE expense_id = ? AND member_id = 3", Boolean.class, EXPENSE_ID));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT unpaid_count FROM EXPENSE WHERE expense_id = ?", Integer.class, EXPENSE_ID));
+    }
+
+    private static SettlementBatchRequestDto batch(Long... memberIds) {
+        List<SettlementRequestDto> settlements = Arrays.stream(memberIds)
+                .map(memberId -> new SettlementRequestDto(memberId, EXPENSE_ID, Money.of(10000)))
+                .toList();
+        return new SettlementBatchRequestDto(EXPENSE_ID, settlements);
+    }
+
+    private void assertBalances(long... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            BigDecimal balance = jdbcTemplate.queryForObject(
+                    "SELECT balance FROM ACCOUNT WHERE member_id = ?", BigDecimal.class, (long) i + 1);
+            assertEquals(0, BigDecimal.valueOf(expected[i]).compareTo(balance), "member " + (i + 1) + " balance " + balance);
+        }
+    }
+}
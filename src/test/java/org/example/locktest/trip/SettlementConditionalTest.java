@@ -0,0 +1,157 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// settle4 의 다중 문장 조건부 갱신을 실제 MySQL 에서 돌린다. SettlementServiceTest 와 같은 DB 설정을 쓴다.
+// ROW_COUNT() 와 한 번에 보내는 여러 문장은 H2 에서 돌지 않는다. 기존 데이터와 겹치지 않게 9000 번대 id 로 넣고 지운다.
+// MySQL 접속 URL(application.properties, 시스템 속성, SPRING_DATASOURCE_URL)이 없으면 건너뛴다.
+@SpringBootTest
+@EnabledIf("mysqlConfigured")
+class SettlementConditionalTest {
+
+    private static final long EXPENSE_ID = 9001L;
+    private static final long SENDER = 9001L;
+    private static final long RECEIVER = 9002L;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private SettlementMapper settlementMapper;
+
+    @Autowired
+    private ExpenseCache expenseCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static boolean mysqlConfigured() throws IOException {
+        String url = System.getProperty("spring.datasource.url", System.getenv("SPRING_DATASOURCE_URL"));
+        if (url == null) {
+            try (InputStream in = SettlementConditionalTest.class.getResourceAsStream("/application.properties")) {
+                if (in != null) {
+                    Properties properties = new Properties();
+                    properties.load(in);
+                    url = properties.getProperty("spring.datasource.url");
+                }
+            }
+        }
+        return url != null && url.startsWith("jdbc:mysql:");
+    }
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        insertAccount(SENDER, 20000);
+        insertAccount(RECEIVER, 0);
+        jdbcTemplate.update("INSERT INTO EXPENSE (expense_id, trip_id, member_id, expense_name, amount, location, unpaid_count)"
+                + " VALUES (?, 9001, ?, 'dinner', 20000, 'SEOUL', 1)", EXPENSE_ID, RECEIVER);
+        jdbcTemplate.update("INSERT INTO SETTLEMENT_NOTES (expense_id, trip_id, member_id, share_amount, is_payed) VALUES (?, 9001, ?, 10000, false)",
+                EXPENSE_ID, SENDER);
+        expenseCache.invalidate(EXPENSE_ID);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM SETTLEMENT_NOTES WHERE expense_id = ?", EXPENSE_ID);
+        jdbcTemplate.update("DELETE FROM EXPENSE WHERE expense_id = ?", EXPENSE_ID);
+        jdbcTemplate.update("DELETE FROM ACCOUNT WHERE member_id IN (?, ?)", SENDER, RECEIVER);
+    }
+
+    private void insertAccount(long memberId, long balance) {
+        jdbcTemplate.update("INSERT INTO ACCOUNT (member_id, name, account_number, bank_name, balance, version) VALUES (?, ?, ?, 'KB', ?, 0)",
+                memberId, "member" + memberId, "900-" + memberId, balance);
+    }
+
+    // 스크립트가 돌려준 단계별 변경 행 수만 보고 트랜잭션은 되돌린다.
+    private ConditionalSettlementResult runScript(long amount) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return settlementMapper.settleConditionally(EXPENSE_ID, SENDER, RECEIVER, Money.of(amount), false, null);
+        });
+    }
+
+    @Test
+    void scriptReportsEveryStepWhenApplied() {
+        ConditionalSettlementResult result = runScript(10000);
+
+        assertEquals(1, result.getDebited());
+        assertEquals(1, result.getCredited());
+        assertEquals(1, result.getMarked());
+        assertTrue(result.isApplied());
+    }
+
+    @Test
+    void scriptSkipsDebitWhenBalanceIsNotGreaterThanAmount() {
+        assertEquals(0, runScript(30000).getDebited());
+        // 다른 경로와 같이 잔액과 같은 금액은 보낼 수 없다.
+        ConditionalSettlementResult exact = runScript(20000);
+        assertEquals(0, exact.getDebited());
+        assertEquals(0, exact.getMarked());
+        assertFalse(exact.isApplied());
+    }
+
+    @Test
+    void settle4MovesMoneyAndCompletesExpense() {
+        assertTrue(settlementService.settle4(new SettlementRequestDto(SENDER, EXPENSE_ID, Money.of(10000))));
+
+        assertBalances(10000, 10000);
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT is_payed FROM SETTLEMENT_NOTES WHERE expense_id = ? AND member_id = ?", Boolean.class, EXPENSE_ID, SENDER));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT unpaid_count FROM EXPENSE WHERE expense_id = ?", Integer.class, EXPENSE_ID));
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT settlement_completed FROM EXPENSE WHERE expense_id = ?", Boolean.class, EXPENSE_ID));
+    }
+
+    @Test
+    void settle4RollsBackInsufficientBalance() {
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> settlementService.settle4(new SettlementRequestDto(SENDER, EXPENSE_ID, Money.of(20000))));
+
+        assertEquals(StatusCode.BAD_REQUEST, e.getStatusCode());
+        // 입금 단계는 먼저 반영됐더라도 예외로 되돌려진다.
+        assertBalances(20000, 0);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT unpaid_count FROM EXPENSE WHERE expense_id = ?", Integer.class, EXPENSE_ID));
+    }
+
+    @Test
+    void settle4RejectsAlreadyPaidNoteWithoutMovingMoney() {
+        settlementService.settle4(new SettlementRequestDto(SENDER, EXPENSE_ID, Money.of(10000)));
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> settlementService.settle4(new SettlementRequestDto(SENDER, EXPENSE_ID, Money.of(5000))));
+
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+        assertBalances(10000, 10000);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT unpaid_count FROM EXPENSE WHERE expense_id = ?", Integer.class, EXPENSE_ID));
+    }
+
+    private void assertBalances(long sender, long receiver) {
+        assertEquals(0, BigDecimal.valueOf(sender).compareTo(balanceOf(SENDER)));
+        assertEquals(0, BigDecimal.valueOf(receiver).compareTo(balanceOf(RECEIVER)));
+    }
+
+    private BigDecimal balanceOf(long memberId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM ACCOUNT WHERE member_id = ?", BigDecimal.class, memberId);
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.locktest.trip;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.locktest.datasource.DatabaseIdConfig;
+import org.example.locktest.money.MoneyJsonComponent;
+import org.example.locktest.money.MoneyTypeHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 키셋 페이지와 Cursor 내보내기를 임베디드 H2 의 실제 매퍼 SQL 로 확인한다.
+@MybatisTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({DatabaseIdConfig.class, MoneyTypeHandler.class, MoneyJsonComponent.class, SettlementHistoryService.class})
+class SettlementHistoryMapperTest {
+
+    private static final long TRIP_ID = 1L;
+    private static final long MEMBER_ID = 3L;
+    private static final Timestamp SAME_TIME = Timestamp.valueOf(LocalDateTime.of(2024, 5, 1, 12, 0));
+
+    @Autowired
+    private SettlementHistoryService settlementHistoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM SETTLEMENT_NOTES");
+        // 한 번에 몰아 넣은 내역처럼 created_at 이 모두 같아서 settlement_id 로만 순서가 갈린다.
+        for (long expenseId = 1; expenseId <= 5; expenseId++) {
+            insertNote(expenseId, TRIP_ID, MEMBER_ID);
+        }
+        insertNote(6L, TRIP_ID, 4L);
+        insertNote(7L, 2L, MEMBER_ID);
+    }
+
+    private void insertNote(long expenseId, long tripId, long memberId) {
+        jdbcTemplate.update("INSERT INTO SETTLEMENT_NOTES (expense_id, trip_id, member_id, share_amount, is_payed, created_at)"
+                + " VALUES (?, ?, ?, 10000, false, ?)", expenseId, tripId, memberId, SAME_TIME);
+    }
+
+    private List<Long> noteIds(String condition, Object... args) {
+        return jdbcTemplate.queryForList("SELECT settlement_id FROM SETTLEMENT_NOTES WHERE " + condition
+                + " ORDER BY settlement_id", Long.class, args);
+    }
+
+    @Test
+    void pagesThroughRowsSharingCreatedAtWithoutGapsOrDuplicates() {
+        List<Long> expected = new ArrayList<>(noteIds("trip_id = ? AND member_id = ?", TRIP_ID, MEMBER_ID)).reversed();
+
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            SettlementHistoryPage page = settlementHistoryService.page(MEMBER_ID, TRIP_ID, cursor, 2);
+            page.getItems().forEach(note -> seen.add(note.getSettlementId()));
+            pageSizes.add(page.getSize());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+        assertEquals(List.of(2, 2, 1), pageSizes);
+    }
+
+    @Test
+    void exportStreamsEveryTripNoteAsNdjsonInOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = settlementHistoryService.export(TRIP_ID, out);
+
+        List<Long> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode note = objectMapper.readTree(line);
+            assertEquals(TRIP_ID, note.get("tripId").asLong());
+            assertEquals(10000, note.get("shareAmount").asLong());
+            exported.add(note.get("settlementId").asLong());
+        }
+        assertEquals(6, written);
+        assertEquals(noteIds("trip_id = ?", TRIP_ID), exported);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.locktest.trip;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SettlementHistoryServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 3, 1, 12, 0, 0);
+
+    private final SettlementMapper settlementMapper = mock(SettlementMapper.class);
+    private final SettlementHistoryService service = new SettlementHistoryService(
+            settlementMapper, new ObjectMapper(), mock(PlatformTransactionManager.class), 20, 100, 500);
+
+    @Test
+    void cursorRoundTripsAndRejectsGarbage() {
+        HistoryCursor cursor = new HistoryCursor(CREATED_AT, 42L);
+
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+        assertNull(HistoryCursor.decode(null));
+        BusinessException e = assertThrows(BusinessException.class, () -> HistoryCursor.decode("not-a-cursor"));
+        assertEquals(StatusCode.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void pageReadsOneExtraRowToFindNextCursor() {
+        when(settlementMapper.searchByMemberIdAndTripId(eq(3L), eq(1L), isNull(), eq(3))).thenReturn(notes(10, 9, 8));
+
+        SettlementHistoryPage first = service.page(3L, 1L, null, 2);
+
+        assertEquals(2, first.getSize());
+        assertEquals(new HistoryCursor(CREATED_AT, 9L), HistoryCursor.decode(first.getNextCursor()));
+
+        when(settlementMapper.searchByMemberIdAndTripId(eq(3L), eq(1L), eq(new HistoryCursor(CREATED_AT, 9L)), eq(3)))
+                .thenReturn(notes(8));
+        SettlementHistoryPage last = service.page(3L, 1L, first.getNextCursor(), 2);
+
+        assertEquals(1, last.getSize());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void pageSizeIsBounded() {
+        assertThrows(BusinessException.class, () -> service.page(3L, 1L, null, 0));
+        assertThrows(BusinessException.class, () -> service.page(3L, 1L, null, 101));
+        verifyNoInteractions(settlementMapper);
+    }
+
+    private static List<SettlementNotes> notes(long... settlementIds) {
+        List<SettlementNotes> notes = new ArrayList<>();
+        for (long settlementId : settlementIds) {
+            notes.add(SettlementNotes.builder().settlementId(settlementId).tripId(1L).memberId(3L).createdAt(CREATED_AT).build());
+        }
+        return notes;
+    }
+}
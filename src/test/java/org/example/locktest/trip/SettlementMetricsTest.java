@@ -0,0 +1,45 @@
+package org.example.locktest.trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SettlementMetrics metrics = new SettlementMetrics(registry);
+
+    @Test
+    void phaseTimerIsTaggedByOutcome() {
+        assertEquals(1, metrics.record("settle", SettlementMetrics.Phase.NOTE_UPDATE, () -> 1));
+        assertThrows(BusinessException.class, () -> metrics.record("settle", SettlementMetrics.Phase.NOTE_UPDATE, () -> {
+            throw new BusinessException(StatusCode.BAD_REQUEST);
+        }));
+
+        assertEquals(1, registry.get("settlement.phase")
+                .tags("strategy", "settle", "phase", "note_update", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("settlement.phase")
+                .tags("strategy", "settle", "phase", "note_update", "outcome", "rejected").timer().count());
+        assertTrue(registry.find("settlement.conflicts").counters().isEmpty());
+    }
+
+    @Test
+    void lockAndVersionFailuresAreCountedAsConflicts() {
+        assertThrows(PessimisticLockingFailureException.class, () -> metrics.record("settle", SettlementMetrics.Phase.LOCK_ACQUIRE, () -> {
+            throw new PessimisticLockingFailureException("lock wait timeout");
+        }));
+        assertThrows(OptimisticLockingFailureException.class, () -> metrics.record("settle2", SettlementMetrics.Phase.BALANCE_UPDATE, () -> {
+            throw new OptimisticLockingFailureException("계좌 버전 충돌");
+        }));
+
+        assertEquals(1, registry.get("settlement.conflicts").tags("strategy", "settle", "type", "lock").counter().count());
+        assertEquals(1, registry.get("settlement.conflicts").tags("strategy", "settle2", "type", "version").counter().count());
+        assertEquals(1, registry.get("settlement.phase")
+                .tags("phase", "lock_acquire", "outcome", "lock_failure").timer().count());
+    }
+}
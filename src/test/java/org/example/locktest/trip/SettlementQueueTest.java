@@ -0,0 +1,140 @@
+package org.example.locktest.trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.locktest.BusinessException;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// 그룹 커밋 큐: 잠금 충돌과 그룹 전체 롤백은 한 건씩 재시도로 넘기고, 종료할 때 남은 접수증은 실패로 끝낸다.
+class SettlementQueueTest {
+    private static final long BLOCKER = 1L;
+
+    private final SettlementService settlementService = mock(SettlementService.class);
+    private final ExpenseCache expenseCache = mock(ExpenseCache.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final Map<Long, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final CountDownLatch blockerStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseBlocker = new CountDownLatch(1);
+
+    private SettlementQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        when(expenseCache.searchByExpenseId(10L)).thenReturn(Expense.builder().expenseId(10L).memberId(9L).build());
+        SettlementRetryProperties properties = new SettlementRetryProperties();
+        properties.setBaseDelayMs(1);
+        properties.setMaxDelayMs(5);
+        queue = new SettlementQueue(settlementService, expenseCache,
+                new SettlementRetryer(properties, new SettlementMetrics(new SimpleMeterRegistry())),
+                transactionManager, 1, 32, 100, 600, 5_000);
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseBlocker.countDown();
+        queue.stop();
+    }
+
+    // 송금인별로 시도 횟수를 세고, BLOCKER 요청은 풀어줄 때까지 워커를 붙잡아 뒤 요청이 한 그룹으로 쌓이게 한다.
+    private void settleAnswering(Map<Long, RuntimeException> firstFailure) {
+        when(settlementService.settleWithRowLocks(any(), any(), eq("async"), anyInt())).thenAnswer(invocation -> {
+            long memberId = invocation.<SettlementRequestDto>getArgument(0).getMemberId();
+            int attempt = attempts.computeIfAbsent(memberId, id -> new AtomicInteger()).getAndIncrement();
+            if (memberId == BLOCKER) {
+                blockerStarted.countDown();
+                releaseBlocker.await(5, TimeUnit.SECONDS);
+            }
+            if (attempt == 0 && firstFailure.containsKey(memberId)) {
+                throw firstFailure.get(memberId);
+            }
+            return true;
+        });
+    }
+
+    private SettlementTicket submitBlocker() throws InterruptedException {
+        SettlementTicket blocker = queue.submit(request(BLOCKER));
+        assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+        return blocker;
+    }
+
+    private static SettlementRequestDto request(long memberId) {
+        return new SettlementRequestDto(memberId, 10L, Money.of(1000));
+    }
+
+    private static SettlementTicket await(SettlementTicket ticket) throws Exception {
+        return ticket.getCompletion().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void lockTimeoutIsRetriedAloneWhileRestOfGroupCommits() throws Exception {
+        settleAnswering(Map.of(3L, new CannotAcquireLockException("lock wait timeout")));
+        submitBlocker();
+        SettlementTicket first = queue.submit(request(2L));
+        SettlementTicket timedOut = queue.submit(request(3L));
+        SettlementTicket last = queue.submit(request(4L));
+        releaseBlocker.countDown();
+
+        assertEquals(SettlementTicket.Status.COMPLETED, await(first).getStatus());
+        assertEquals(SettlementTicket.Status.COMPLETED, await(timedOut).getStatus());
+        assertEquals(SettlementTicket.Status.COMPLETED, await(last).getStatus());
+        // 잠금 대기로 빠진 요청만 한 번 더 돌고, 나머지는 그룹에서 한 번만 처리된다.
+        assertEquals(2, attempts.get(3L).get());
+        assertEquals(1, attempts.get(2L).get());
+        assertEquals(1, attempts.get(4L).get());
+    }
+
+    @Test
+    void groupRolledBackByDeadlockIsReplayedOneByOne() throws Exception {
+        settleAnswering(Map.of(3L, new DeadlockLoserDataAccessException("deadlock", null)));
+        // 데드락은 savepoint 까지 지우므로 savepoint 로 되돌리는 단계가 실패하고, 그룹 트랜잭션 전체가 되돌려진다.
+        doThrow(new TransactionSystemException("savepoint does not exist")).doNothing().when(transactionManager).rollback(any());
+        submitBlocker();
+        SettlementTicket before = queue.submit(request(2L));
+        SettlementTicket deadlocked = queue.submit(request(3L));
+        releaseBlocker.countDown();
+
+        assertEquals(SettlementTicket.Status.COMPLETED, await(before).getStatus());
+        assertEquals(SettlementTicket.Status.COMPLETED, await(deadlocked).getStatus());
+        // 앞선 요청도 롤백으로 사라졌으므로 개별 처리에서 다시 반영한다.
+        assertEquals(2, attempts.get(2L).get());
+        assertEquals(2, attempts.get(3L).get());
+    }
+
+    @Test
+    void stopFinishesRunningGroupAndFailsQueuedTickets() throws Exception {
+        settleAnswering(Map.of());
+        SettlementTicket running = submitBlocker();
+        SettlementTicket queued = queue.submit(request(2L));
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            releaseBlocker.countDown();
+        });
+        queue.stop();
+
+        assertEquals(SettlementTicket.Status.COMPLETED, await(running).getStatus());
+        assertEquals(SettlementTicket.Status.FAILED, await(queued).getStatus());
+        assertNull(attempts.get(2L));
+        assertThrows(BusinessException.class, () -> queue.submit(request(3L)));
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.locktest.trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementRetryerTest {
+
+    private static final List<String> HOT_KEYS = List.of("account:1", "expense:1");
+
+    @Test
+    void retryPoliciesStayWithinBounds() {
+        for (RetryPolicy.Type type : RetryPolicy.Type.values()) {
+            SettlementRetryProperties properties = new SettlementRetryProperties();
+            properties.setPolicy(type);
+            properties.setBaseDelayMs(10);
+            properties.setMaxDelayMs(500);
+            RetryPolicy policy = RetryPolicy.of(properties);
+
+            long previous = 0;
+            for (int retryCount = 0; retryCount < 40; retryCount++) {
+                previous = policy.nextDelayMs(retryCount, previous);
+                assertTrue(previous >= 0 && previous <= 500, type + " delay out of range: " + previous);
+            }
+        }
+    }
+
+    @Test
+    void contentionIsShedByBudgetAndBreaker() throws Exception {
+        SettlementRetryProperties properties = new SettlementRetryProperties();
+        properties.setBaseDelayMs(1);
+        properties.setMaxDelayMs(20);
+        properties.setBudgetPerSecond(50);
+        properties.getBreaker().setMinRequests(20);
+        properties.getBreaker().setConflictRatio(0.5);
+        properties.getBreaker().setOpenMillis(300);
+        SettlementRetryer retryer = new SettlementRetryer(properties, new SettlementMetrics(new SimpleMeterRegistry()));
+
+        // 같은 계좌 하나를 16개 스레드가 두드린다. 락을 못 잡으면 충돌로 본다.
+        ReentrantLock hotRow = new ReentrantLock();
+        int threadCount = 16;
+        int operationsPerThread = 30;
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        long start = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < operationsPerThread; j++) {
+                    try {
+                        retryer.execute("test", HOT_KEYS, PessimisticLockingFailureException.class, retryCount -> {
+                            attempts.incrementAndGet();
+                            if (!hotRow.tryLock()) {
+                                throw new PessimisticLockingFailureException("lock conflict");
+                            }
+                            try {
+                                Thread.sleep(2);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            } finally {
+                                hotRow.unlock();
+                            }
+                            return true;
+                        });
+                        succeeded.incrementAndGet();
+                    } catch (BusinessException e) {
+                        assertEquals(StatusCode.SERVICE_UNAVAILABLE, e.getStatusCode());
+                        shed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        int operations = threadCount * operationsPerThread;
+        int retries = attempts.get() - (succeeded.get() + shed.get());
+        assertEquals(operations, succeeded.get() + shed.get());
+        assertTrue(shed.get() > 0, "contention should be shed instead of retried forever");
+        assertTrue(succeeded.get() > 0, "some operations should still succeed");
+        // 예산 + 처음 채워진 버킷 이상으로 재시도하지 않는다 (회로가 열린 뒤의 빠른 실패는 시도 수에 들어가지 않는다).
+        assertTrue(retries <= properties.getBudgetPerSecond() * (elapsedSeconds + 1),
+                "retries " + retries + " exceeded budget over " + elapsedSeconds + "s");
+    }
+
+    @Test
+    void breakerOpensAndRecovers() throws InterruptedException {
+        SettlementRetryProperties properties = new SettlementRetryProperties();
+        properties.getBreaker().setMinRequests(5);
+        properties.getBreaker().setConflictRatio(0.5);
+        properties.getBreaker().setOpenMillis(200);
+        properties.getBreaker().setWindowSeconds(1);
+        SettlementRetryer retryer = new SettlementRetryer(properties, new SettlementMetrics(new SimpleMeterRegistry()));
+
+        for (int i = 0; i < 5; i++) {
+            try {
+                retryer.onConflict("test", HOT_KEYS, 0, 0, new PessimisticLockingFailureException("conflict"));
+            } catch (BusinessException ignored) {
+                // 회로가 열리면 onConflict 도 바로 실패한다.
+            }
+        }
+        BusinessException e = assertThrows(BusinessException.class, () -> retryer.checkPermitted("test", HOT_KEYS));
+        assertEquals(StatusCode.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertDoesNotThrow(() -> retryer.checkPermitted("test", List.of("account:2", "expense:2")));
+
+        Thread.sleep(1200);
+        assertDoesNotThrow(() -> retryer.checkPermitted("test", HOT_KEYS));
+    }
+
+    @Test
+    void conflictsOnSharedReceiverOpenBreakerForOtherSenders() {
+        SettlementRetryProperties properties = new SettlementRetryProperties();
+        properties.getBreaker().setMinRequests(4);
+        properties.getBreaker().setConflictRatio(0.5);
+        SettlementRetryer retryer = new SettlementRetryer(properties, new SettlementMetrics(new SimpleMeterRegistry()));
+
+        // 서로 다른 송금인과 지출이 같은 수신인 계좌 한 줄에서 부딪힌다.
+        for (long sender = 1; sender <= 4; sender++) {
+            List<String> keys = SettlementRetryer.keysOf(new SettlementRequestDto(sender, sender, Money.of(1000)), 99L);
+            try {
+                retryer.onConflict("test", keys, 0, 0, new PessimisticLockingFailureException("conflict"));
+            } catch (BusinessException ignored) {
+                // 회로가 열리면 onConflict 도 바로 실패한다.
+            }
+        }
+        List<String> keys = SettlementRetryer.keysOf(new SettlementRequestDto(5L, 5L, Money.of(1000)), 99L);
+        assertEquals(List.of("account:5", "account:99", "expense:5"), keys);
+        BusinessException e = assertThrows(BusinessException.class, () -> retryer.checkPermitted("test", keys));
+        assertEquals(StatusCode.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertDoesNotThrow(() -> retryer.checkPermitted("test", SettlementRetryer.keysOf(new SettlementRequestDto(5L, 5L, Money.of(1000)), 100L)));
+    }
+}
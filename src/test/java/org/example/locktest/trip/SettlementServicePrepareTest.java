@@ -0,0 +1,210 @@
+package org.example.locktest.trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.locktest.Account.Account;
+import org.example.locktest.Account.AccountMapper;
+import org.example.locktest.Account.LedgerBalanceService;
+import org.example.locktest.Account.ShardedBalanceService;
+import org.example.locktest.BusinessException;
+import org.example.locktest.StatusCode;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// settle 의 2단계 처리: 잠금 전 검증에서 걸러지는 요청은 트랜잭션을 열지 않고, 잠근 구간에서 뒤늦게 발견한 중복 지불은 예외로 되돌린다.
+class SettlementServicePrepareTest {
+
+    private final ExpenseMapper expenseMapper = mock(ExpenseMapper.class);
+    private final ExpenseCache expenseCache = mock(ExpenseCache.class);
+    private final AccountMapper accountMapper = mock(AccountMapper.class);
+    private final SettlementMapper settlementMapper = mock(SettlementMapper.class);
+    private final ShardedBalanceService shardedBalanceService = mock(ShardedBalanceService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final LedgerBalanceService ledgerBalanceService = mock(LedgerBalanceService.class);
+    private final SettlementRetryer settlementRetryer = mock(SettlementRetryer.class);
+
+    private SettlementService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+        service = new SettlementService(expenseMapper, expenseCache, accountMapper, settlementMapper,
+                mock(AccountLockManager.class), shardedBalanceService, ledgerBalanceService,
+                transactionTemplate, settlementRetryer, new SettlementMetrics(new SimpleMeterRegistry()));
+        when(expenseCache.searchByExpenseId(10L)).thenReturn(Expense.builder().expenseId(10L).memberId(2L).build());
+        when(settlementRetryer.execute(anyString(), anyList(), any(), any()))
+                .thenAnswer(invocation -> ((IntFunction<Object>) invocation.getArgument(3)).apply(0));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(accountMapper.searchAccountByMemberIdForUpdate(1L)).thenReturn(Account.builder().memberId(1L).balance(Money.of(50_000)).build());
+        when(accountMapper.searchAccountByMemberIdForUpdate(2L)).thenReturn(Account.builder().memberId(2L).balance(Money.ZERO).build());
+    }
+
+    private static SettlementRequestDto request() {
+        return new SettlementRequestDto(1L, 10L, Money.of(3000));
+    }
+
+    @Test
+    void alreadyPaidIsRejectedBeforeAnyLock() {
+        when(settlementMapper.searchByMemberIdAndExpenseId(10L, 1L)).thenReturn(SettlementNotes.builder().isPayed(true).build());
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.settle(request()));
+
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+        verify(transactionTemplate, never()).execute(any());
+        verifyNoInteractions(transactionManager, settlementRetryer);
+        verify(accountMapper, never()).searchAccountByMemberIdForUpdate(any());
+    }
+
+    @Test
+    void memberWithoutNoteIsRejectedBeforeAnyLock() {
+        BusinessException e = assertThrows(BusinessException.class, () -> service.settle(request()));
+
+        assertEquals(StatusCode.BAD_REQUEST, e.getStatusCode());
+        verify(transactionTemplate, never()).execute(any());
+        verifyNoInteractions(transactionManager, settlementRetryer);
+        verify(accountMapper, never()).searchAccountByMemberIdForUpdate(any());
+    }
+
+    @Test
+    void payingOwnExpenseIsRejectedBeforeAnyLock() {
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> service.settle(new SettlementRequestDto(2L, 10L, Money.of(3000))));
+
+        assertEquals(StatusCode.BAD_REQUEST, e.getStatusCode());
+        verify(transactionTemplate, never()).execute(any());
+        verifyNoInteractions(transactionManager, accountMapper);
+    }
+
+    @Test
+    void lockedStageWritesBalanceAndNote() {
+        when(settlementMapper.searchByMemberIdAndExpenseId(10L, 1L)).thenReturn(SettlementNotes.builder().isPayed(false).build());
+        when(settlementMapper.updateIsPayedByExpenseIdAndMemberID(10L, 1L)).thenReturn(1);
+
+        assertTrue(service.settle(request()));
+
+        verify(accountMapper).transactionBalance(2L, 1L, Money.of(3000));
+        verify(expenseMapper).decrementUnpaidCount(10L, 1);
+    }
+
+    @Test
+    void noteClaimedByConcurrentPaymentRollsBackTransfer() {
+        when(settlementMapper.searchByMemberIdAndExpenseId(10L, 1L)).thenReturn(SettlementNotes.builder().isPayed(false).build());
+        when(settlementMapper.updateIsPayedByExpenseIdAndMemberID(10L, 1L)).thenReturn(0);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.settle(request()));
+
+        // 예외가 트랜잭션 밖으로 나가야 이미 보낸 이체 UPDATE 까지 되돌아간다.
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+        verify(expenseMapper, never()).decrementUnpaidCount(any(), anyInt());
+    }
+
+    @Test
+    void shortSnapshotCountsPendingLedgerWithoutCompacting() {
+        when(settlementMapper.searchByMemberIdAndExpenseId(10L, 1L)).thenReturn(SettlementNotes.builder().isPayed(false).build());
+        when(settlementMapper.updateIsPayedByExpenseIdAndMemberID(10L, 1L)).thenReturn(1);
+        when(accountMapper.searchAccountByMemberIdForUpdate(1L)).thenReturn(Account.builder().memberId(1L).balance(Money.of(1000)).build());
+        when(ledgerBalanceService.pending(1L)).thenReturn(Money.of(5000));
+
+        assertTrue(service.settle(request()));
+
+        // REPEATABLE READ 트랜잭션 안에서는 분개 행을 잠그지 않고 합계만 본다.
+        verify(ledgerBalanceService, never()).compact(any());
+        verify(accountMapper).transactionBalance(2L, 1L, Money.of(3000));
+    }
+
+    @Test
+    void rowLockPathRejectsPaidNoteBeforeLocking() {
+        when(settlementMapper.searchByMemberIdAndExpenseId(10L, 1L)).thenReturn(SettlementNotes.builder().isPayed(true).build());
+        Expense expense = Expense.builder().expenseId(10L).memberId(2L).build();
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> service.settleWithRowLocks(request(), expense, "async", 0));
+
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+        verify(accountMapper, never()).searchAccountByMemberIdForUpdate(any());
+    }
+
+    @Test
+    void rowLockPathRollsBackWhenNoteWasClaimedWhileLocking() {
+        when(settlementMapper.searchByMemberIdAndExpenseId(10L, 1L)).thenReturn(SettlementNotes.builder().isPayed(false).build());
+        when(settlementMapper.updateIsPayedByExpenseIdAndMemberID(10L, 1L)).thenReturn(0);
+        Expense expense = Expense.builder().expenseId(10L).memberId(2L).build();
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> service.settleWithRowLocks(request(), expense, "async", 0));
+
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+        verify(expenseMapper, never()).decrementUnpaidCount(any(), anyInt());
+    }
+
+    @Test
+    void optimisticPathRunsInTransactionAndRejectsUnmarkedNote() {
+        when(accountMapper.searchAccountByMemberId(1L)).thenReturn(Account.builder().memberId(1L).balance(Money.of(50_000)).version(3L).build());
+        when(accountMapper.searchAccountByMemberId(2L)).thenReturn(Account.builder().memberId(2L).balance(Money.ZERO).version(7L).build());
+        when(accountMapper.updateBalancesWithOptimisticLock(1L, 2L, Money.of(3000), 3L, 7L)).thenReturn(2);
+        when(settlementMapper.updateIsPayedByExpenseIdAndMemberID(10L, 1L)).thenReturn(0);
+        when(settlementMapper.searchByMemberIdAndExpenseId(10L, 1L)).thenReturn(SettlementNotes.builder().isPayed(true).build());
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.settle2(request()));
+
+        // 이체 UPDATE 와 같은 트랜잭션 안에서 던져야 함께 되돌아간다.
+        assertEquals(StatusCode.DUPLICATE_REQUEST, e.getStatusCode());
+        verify(transactionTemplate).execute(any());
+        verify(expenseMapper, never()).decrementUnpaidCount(any(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void conditionalPathOpensNewTransactionPerAttempt() {
+        doAnswer(invocation -> {
+            IntFunction<Object> attempt = invocation.getArgument(3);
+            try {
+                return attempt.apply(0);
+            } catch (PessimisticLockingFailureException e) {
+                return attempt.apply(1);
+            }
+        }).when(settlementRetryer).execute(anyString(), anyList(), any(), any());
+        ConditionalSettlementResult applied = mock(ConditionalSettlementResult.class);
+        when(applied.getDebited()).thenReturn(1);
+        when(applied.getCredited()).thenReturn(1);
+        when(applied.getMarked()).thenReturn(1);
+        when(settlementMapper.settleConditionally(eq(10L), eq(1L), eq(2L), eq(Money.of(3000)), anyBoolean(), any()))
+                .thenThrow(new PessimisticLockingFailureException("lock wait timeout"))
+                .thenReturn(applied);
+
+        assertTrue(service.settle4(request()));
+
+        // 실패한 시도의 트랜잭션은 재시도 전에 끝나고, 재시도는 새 트랜잭션에서 돈다.
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void ledgerAttemptRunsInItsOwnReadCommittedTransaction() {
+        when(ledgerBalanceService.isEnabled()).thenReturn(true);
+        when(accountMapper.searchAccountByMemberId(2L)).thenReturn(Account.builder().memberId(2L).balance(Money.ZERO).build());
+        when(settlementMapper.updateIsPayedByExpenseIdAndMemberID(10L, 1L)).thenReturn(1);
+
+        assertTrue(service.settleLedger(request()));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        verify(transactionManager).commit(any());
+        assertEquals(TransactionDefinition.ISOLATION_READ_COMMITTED, definition.getValue().getIsolationLevel());
+        verify(ledgerBalanceService).transfer(1L, 2L, 10L, Money.of(3000));
+    }
+}
@@ -3,6 +3,7 @@ package org.example.locktest.trip;
 import org.example.locktest.Account.Account;
 import org.example.locktest.Account.AccountMapper;
 import org.example.locktest.BusinessException;
+import org.example.locktest.money.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -40,12 +41,15 @@ public class SettlementServiceTest {
     @Autowired
     private SettlementMapper settlementMapper;
 
+    @Autowired
+    private SettlementQueue settlementQueue;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
     private static final int THREAD_COUNT = 2;
     private static final int OPERATIONS_PER_THREAD = 100;
-    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("1000");
+    private static final Money TRANSFER_AMOUNT = Money.of(1000);
 
     @BeforeEach
     void setUp() {
@@ -58,10 +62,18 @@ public class SettlementServiceTest {
             // Column already exists, ignore
         }
 
+        // Add unpaid_count column if not exists
+        try {
+            jdbcTemplate.execute("ALTER TABLE EXPENSE ADD COLUMN unpaid_count INT NOT NULL DEFAULT 0");
+        } catch (Exception e) {
+            // Column already exists, ignore
+        }
+
         // Reset test data
         jdbcTemplate.update("UPDATE ACCOUNT SET balance = 1000000.00, version = 0 WHERE account_id IN (1, 2, 3, 4)");
         jdbcTemplate.update("UPDATE SETTLEMENT_NOTES SET is_payed = false");
         jdbcTemplate.update("UPDATE EXPENSE SET settlement_completed = false");
+        resetUnpaidCount();
     }
 
     @Test
@@ -84,13 +96,34 @@ public class SettlementServiceTest {
         SettlementRequestDto dto = new SettlementRequestDto();
         dto.setExpenseId(1L);
         dto.setMemberId(3L);
-        dto.setAmount(new BigDecimal("64333"));
+        dto.setAmount(Money.of(64333));
+
+        Integer unpaidBefore = jdbcTemplate.queryForObject("SELECT unpaid_count FROM EXPENSE WHERE expense_id = 1", Integer.class);
 
         boolean result = settlementService.settle(dto);
         assertTrue(result);
+
+        Integer unpaidAfter = jdbcTemplate.queryForObject("SELECT unpaid_count FROM EXPENSE WHERE expense_id = 1", Integer.class);
+        assertEquals(unpaidBefore - 1, unpaidAfter);
         log.info("Single settlement test success");
     }
 
+    @Test
+    void testBatchSettlement() {
+        SettlementBatchRequestDto dto = SettlementBatchRequestDto.builder()
+                .expenseId(1L)
+                .build();
+
+        int settled = settlementService.settleBatch(dto);
+        assertTrue(settled > 0);
+
+        Integer unpaid = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM SETTLEMENT_NOTES s JOIN EXPENSE e ON e.expense_id = s.expense_id " +
+                        "WHERE s.expense_id = 1 AND s.member_id <> e.member_id AND s.is_payed = false", Integer.class);
+        assertEquals(0, unpaid);
+        log.info("Batch settlement test success: {} transfers", settled);
+    }
+
     @Test
     void comparePessimisticVsOptimisticLock() throws InterruptedException {
         log.info("=== Performance Test Start ===");
@@ -110,6 +143,110 @@ public class SettlementServiceTest {
         printResults(pessimisticResult, optimisticResult);
     }
 
+    @Test
+    void compareSyncVsAsyncSettlement() throws Exception {
+        log.info("=== Sync (settle) vs Async (queue) Test Start ===");
+        List<SettlementNotes> unpaidNotes = jdbcTemplate.query(
+                "SELECT * FROM SETTLEMENT_NOTES WHERE is_payed = false AND received = true",
+                (rs, rowNum) -> SettlementNotes.builder()
+                        .expenseId(rs.getLong("expense_id"))
+                        .memberId(rs.getLong("member_id"))
+                        .shareAmount(Money.of(rs.getBigDecimal("share_amount")))
+                        .build());
+        assertFalse(unpaidNotes.isEmpty(), "Unpaid settlement notes are required");
+        // 한 정산 내역은 한 번만 지불할 수 있으므로 요청마다 다른 내역을 쓴다.
+        List<SettlementNotes> notes = unpaidNotes.subList(0, Math.min(unpaidNotes.size(), THREAD_COUNT * OPERATIONS_PER_THREAD));
+        int totalOperations = notes.size();
+
+        // 1. Sync: 호출 스레드가 정산 완료까지 기다린다.
+        List<Long> syncTimes = new CopyOnWriteArrayList<>();
+        AtomicInteger syncSuccess = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        long syncStart = System.currentTimeMillis();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            final int threadId = i;
+            futures.add(executor.submit(() -> {
+                for (int j = threadId; j < notes.size(); j += THREAD_COUNT) {
+                    SettlementNotes note = notes.get(j);
+                    long start = System.nanoTime();
+                    try {
+                        settlementService.settle(toDto(note));
+                        syncSuccess.incrementAndGet();
+                    } catch (BusinessException e) {
+                        log.debug("Sync settlement failed: {}", e.getMessage());
+                    }
+                    syncTimes.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        PerformanceResult syncResult = toResult("Sync", totalOperations, syncSuccess.get(), System.currentTimeMillis() - syncStart, syncTimes);
+        assertEquals(syncSuccess.get(), countPaid(notes));
+
+        resetTestData();
+
+        // 2. Async: 접수 즉시 반환되고, 접수부터 커밋까지의 시간을 잰다.
+        List<Long> asyncTimes = new CopyOnWriteArrayList<>();
+        AtomicInteger asyncSuccess = new AtomicInteger();
+        long asyncStart = System.currentTimeMillis();
+        List<CompletableFuture<SettlementTicket>> completions = new ArrayList<>();
+        for (SettlementNotes note : notes) {
+            long start = System.nanoTime();
+            completions.add(settlementQueue.submit(toDto(note)).getCompletion().whenComplete((ticket, e) -> {
+                asyncTimes.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                if (ticket != null && ticket.getStatus() == SettlementTicket.Status.COMPLETED) {
+                    asyncSuccess.incrementAndGet();
+                }
+            }));
+        }
+        CompletableFuture.allOf(completions.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        PerformanceResult asyncResult = toResult("Async", totalOperations, asyncSuccess.get(), System.currentTimeMillis() - asyncStart, asyncTimes);
+        assertEquals(asyncSuccess.get(), countPaid(notes));
+
+        log.info("\n[Sync - settle()]");
+        printResult(syncResult);
+        log.info("\n[Async - settlement queue]");
+        printResult(asyncResult);
+    }
+
+    // 성공한 요청 수와 지불 처리된 내역 수가 같아야 같은 내역을 두 번 이체하지 않은 것이다.
+    private int countPaid(List<SettlementNotes> notes) {
+        int paid = 0;
+        for (SettlementNotes note : notes) {
+            paid += jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM SETTLEMENT_NOTES WHERE expense_id = ? AND member_id = ? AND is_payed = true",
+                    Integer.class, note.getExpenseId(), note.getMemberId());
+        }
+        return paid;
+    }
+
+    private static SettlementRequestDto toDto(SettlementNotes note) {
+        return SettlementRequestDto.builder()
+                .expenseId(note.getExpenseId())
+                .memberId(note.getMemberId())
+                .amount(note.getShareAmount())
+                .build();
+    }
+
+    private PerformanceResult toResult(String lockType, int totalOperations, int successCount, long totalTestTime, List<Long> responseTimes) {
+        PerformanceResult result = new PerformanceResult();
+        result.lockType = lockType;
+        result.totalOperations = totalOperations;
+        result.successCount = successCount;
+        result.failureCount = totalOperations - successCount;
+        result.totalTestTime = totalTestTime;
+        result.avgResponseTime = (long) responseTimes.stream().mapToLong(Long::longValue).average().orElse(0);
+        result.minResponseTime = responseTimes.stream().mapToLong(Long::longValue).min().orElse(0);
+        result.maxResponseTime = responseTimes.stream().mapToLong(Long::longValue).max().orElse(0);
+        result.throughput = calculateThroughput(successCount, totalTestTime);
+        result.responseTimes = responseTimes;
+        return result;
+    }
+
     private PerformanceResult testPessimisticLock() throws InterruptedException {
         log.info("\n=== Pessimistic Lock (settle) Test Start ===");
         return runPerformanceTest(true);
@@ -150,7 +287,7 @@ public class SettlementServiceTest {
                                         note.setSettlementId(rs.getLong("settlement_id"));
                                         note.setExpenseId(rs.getLong("expense_id"));
                                         note.setMemberId(rs.getLong("member_id"));
-                                        note.setShareAmount(rs.getBigDecimal("share_amount"));
+                                        note.setShareAmount(Money.of(rs.getBigDecimal("share_amount")));
                                         note.setIsPayed(rs.getBoolean("is_payed"));
                                         return note;
                                     }
@@ -250,6 +387,12 @@ public class SettlementServiceTest {
         jdbcTemplate.update("UPDATE ACCOUNT SET balance = 1000000.00, version = 0");
         jdbcTemplate.update("UPDATE SETTLEMENT_NOTES SET is_payed = false");
         jdbcTemplate.update("UPDATE EXPENSE SET settlement_completed = false");
+        resetUnpaidCount();
+    }
+
+    private void resetUnpaidCount() {
+        jdbcTemplate.update("UPDATE EXPENSE e SET unpaid_count = " +
+                "(SELECT COUNT(*) FROM SETTLEMENT_NOTES s WHERE s.expense_id = e.expense_id AND s.is_payed = false)");
     }
 
     private double calculateThroughput(int successCount, long totalTime) {
@@ -0,0 +1,41 @@
+package org.example.locktest.trip;
+
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShareSplitterTest {
+
+    @Test
+    void remainderGoesToPayer() {
+        Map<Long, Money> shares = ShareSplitter.split(Money.of(10_000), List.of(1L, 2L, 3L), 2L);
+
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(shares.keySet()));
+        assertEquals(Money.of(3_333), shares.get(1L));
+        assertEquals(Money.of(3_334), shares.get(2L));
+        assertEquals(Money.of(3_333), shares.get(3L));
+    }
+
+    @Test
+    void remainderIsSpreadWhenPayerDoesNotShare() {
+        Map<Long, Money> shares = ShareSplitter.split(Money.of(10_002), List.of(1L, 2L, 3L, 4L), 9L);
+
+        assertEquals(List.of(Money.of(2_501), Money.of(2_501), Money.of(2_500), Money.of(2_500)), List.copyOf(shares.values()));
+    }
+
+    @Test
+    void sharesAlwaysAddUpToAmount() {
+        for (int members = 1; members <= 50; members++) {
+            List<Long> memberIds = LongStream.rangeClosed(1, members).boxed().toList();
+            Money amount = Money.of(99_999 + members);
+
+            assertEquals(amount, Money.sum(ShareSplitter.split(amount, memberIds, 1L).values()));
+            assertEquals(amount, Money.sum(ShareSplitter.split(amount, memberIds, 0L).values()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.locktest.trip;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final SlidingWindowCounter counter = new SlidingWindowCounter(4, 100, clock::get);
+
+    @Test
+    void totalsSumBucketsInsideWindow() {
+        counter.record(0);
+        clock.addAndGet(100);
+        counter.record(1);
+        counter.record(1);
+
+        assertEquals(new SlidingWindowCounter.Totals(3, 2), counter.totals());
+        assertEquals(2.0 / 3, counter.totals().conflictRatio(), 1e-9);
+    }
+
+    @Test
+    void oldBucketsFallOutAndSlotIsReused() {
+        counter.record(1);
+        clock.addAndGet(300);
+        counter.record(0);
+        assertEquals(new SlidingWindowCounter.Totals(2, 1), counter.totals());
+
+        // 첫 버킷은 윈도우 밖으로 밀려나고, 같은 칸을 다시 쓸 때 이전 값은 지워진다.
+        clock.addAndGet(100);
+        assertEquals(new SlidingWindowCounter.Totals(1, 0), counter.totals());
+        counter.record(0);
+        assertEquals(new SlidingWindowCounter.Totals(2, 0), counter.totals());
+    }
+
+    @Test
+    void idleAfterFullWindowWithoutRecords() {
+        assertTrue(counter.isIdle());
+        counter.record(0);
+        assertFalse(counter.isIdle());
+
+        clock.addAndGet(399);
+        assertFalse(counter.isIdle());
+        clock.addAndGet(1);
+        assertTrue(counter.isIdle());
+        assertEquals(SlidingWindowCounter.Totals.EMPTY, counter.totals());
+    }
+}
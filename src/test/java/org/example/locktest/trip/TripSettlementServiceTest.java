@@ -0,0 +1,84 @@
+package org.example.locktest.trip;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 여행 단위 정산을 임베디드 H2 에 돌려 상계한 잔액과 정산 내역을 확인한다.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+class TripSettlementServiceTest {
+
+    private static final long TRIP_ID = 1L;
+
+    @Autowired
+    private TripSettlementService tripSettlementService;
+
+    @Autowired
+    private ExpenseCache expenseCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM SETTLEMENT_NOTES");
+        jdbcTemplate.update("DELETE FROM EXPENSE");
+        jdbcTemplate.update("DELETE FROM ACCOUNT");
+        for (long memberId = 1; memberId <= 3; memberId++) {
+            jdbcTemplate.update("INSERT INTO ACCOUNT (member_id, name, account_number, bank_name, balance) VALUES (?, ?, ?, 'KB', 100000)",
+                    memberId, "member" + memberId, "110-" + memberId);
+        }
+        // 1번이 저녁을, 2번이 택시를 냈다. 3번은 두 번 다 빚지고, 1번과 2번의 빚은 서로 상계된다.
+        insertExpense(1L, 1L, "dinner");
+        insertExpense(2L, 2L, "taxi");
+    }
+
+    private void insertExpense(long expenseId, long payer, String name) {
+        jdbcTemplate.update("INSERT INTO EXPENSE (expense_id, trip_id, member_id, expense_name, amount, location, unpaid_count)"
+                + " VALUES (?, ?, ?, ?, 30000, 'SEOUL', 2)", expenseId, TRIP_ID, payer, name);
+        for (long memberId = 1; memberId <= 3; memberId++) {
+            jdbcTemplate.update("INSERT INTO SETTLEMENT_NOTES (expense_id, trip_id, member_id, share_amount, is_payed) VALUES (?, ?, ?, 10000, ?)",
+                    expenseId, TRIP_ID, memberId, memberId == payer);
+        }
+        expenseCache.invalidate(expenseId);
+    }
+
+    @Test
+    void nettedTripMovesNetBalancesAndMarksEveryNote() {
+        TripSettlementResult result = tripSettlementService.settleTrip(TRIP_ID);
+
+        assertEquals(4, result.getSettledNotes());
+        assertEquals(2, result.getCompletedExpenses());
+        assertBalances(110000, 110000, 80000);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM SETTLEMENT_NOTES WHERE trip_id = ? AND is_payed = FALSE", Integer.class, TRIP_ID));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM EXPENSE WHERE trip_id = ? AND settlement_completed = TRUE", Integer.class, TRIP_ID));
+    }
+
+    @Test
+    void settledTripIsNotSettledTwice() {
+        tripSettlementService.settleTrip(TRIP_ID);
+
+        TripSettlementResult again = tripSettlementService.settleTrip(TRIP_ID);
+
+        assertTrue(again.getTransfers().isEmpty());
+        assertBalances(110000, 110000, 80000);
+    }
+
+    private void assertBalances(long... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            BigDecimal balance = jdbcTemplate.queryForObject(
+                    "SELECT balance FROM ACCOUNT WHERE member_id = ?", BigDecimal.class, (long) i + 1);
+            assertEquals(0, BigDecimal.valueOf(expected[i]).compareTo(balance), "member " + (i + 1) + " balance " + balance);
+        }
+    }
+}
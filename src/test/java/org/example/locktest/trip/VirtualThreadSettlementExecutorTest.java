@@ -0,0 +1,124 @@
+package org.example.locktest.trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.locktest.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// 가상 스레드 실행기: DB 허용량만큼만 동시에 시도하고, 충돌한 시도는 잠든 스레드 없이 예약 실행으로 다시 돈다.
+class VirtualThreadSettlementExecutorTest {
+    private static final long RETRY_DELAY_MS = 50;
+
+    private final SettlementService settlementService = mock(SettlementService.class);
+    private final ExpenseCache expenseCache = mock(ExpenseCache.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SettlementRetryer settlementRetryer = mock(SettlementRetryer.class);
+
+    private VirtualThreadSettlementExecutor executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(expenseCache.searchByExpenseId(10L)).thenReturn(Expense.builder().expenseId(10L).memberId(2L).build());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(settlementRetryer.onConflict(anyString(), anyList(), anyInt(), anyLong(), any())).thenReturn(RETRY_DELAY_MS);
+        executor = new VirtualThreadSettlementExecutor(settlementService, expenseCache, transactionTemplate, settlementRetryer,
+                new SettlementMetrics(new SimpleMeterRegistry()), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private static SettlementRequestDto request(long memberId) {
+        return new SettlementRequestDto(memberId, 10L, Money.of(3000));
+    }
+
+    @Test
+    void dbPermitsBoundConcurrentAttempts() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(settlementService.settleWithRowLocks(any(), any(), eq("virtual"), anyInt())).thenAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } finally {
+                active.decrementAndGet();
+            }
+            return true;
+        });
+
+        List<CompletableFuture<Boolean>> results = IntStream.rangeClosed(3, 8)
+                .mapToObj(memberId -> executor.settle(request(memberId)))
+                .toList();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (active.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+
+        // 요청 여섯 건이 모두 가상 스레드에 올라가 있어도 DB 구간에는 허용량만큼만 들어간다.
+        assertEquals(2, active.get());
+        release.countDown();
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, maxActive.get());
+    }
+
+    @Test
+    void lockConflictIsRetriedFromScheduledContinuation() throws Exception {
+        List<Thread> attemptThreads = new CopyOnWriteArrayList<>();
+        when(settlementService.settleWithRowLocks(any(), any(), eq("virtual"), anyInt())).thenAnswer(invocation -> {
+            attemptThreads.add(Thread.currentThread());
+            if (invocation.<Integer>getArgument(3) == 0) {
+                throw new PessimisticLockingFailureException("lock wait timeout");
+            }
+            return true;
+        });
+
+        long start = System.nanoTime();
+        assertTrue(executor.settle(request(1L)).get(5, TimeUnit.SECONDS));
+
+        // 대기는 예약 실행이 맡고, 재시도는 새 가상 스레드에서 돈다.
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MS));
+        assertEquals(2, attemptThreads.size());
+        assertTrue(attemptThreads.get(1).isVirtual());
+        assertNotSame(attemptThreads.get(0), attemptThreads.get(1));
+        verify(settlementRetryer).onConflict(eq("settleVirtual"), anyList(), eq(0), eq(0L), any(PessimisticLockingFailureException.class));
+        verify(settlementRetryer, times(2)).checkPermitted(eq("settleVirtual"), anyList());
+    }
+
+    @Test
+    void optimisticPathRetriesVersionConflicts() throws Exception {
+        when(settlementService.executeSettle2Transaction(any(), anyInt()))
+                .thenThrow(new OptimisticLockingFailureException("계좌 버전 충돌"))
+                .thenReturn(true);
+
+        assertTrue(executor.settleOptimistic(request(1L)).get(5, TimeUnit.SECONDS));
+
+        verify(settlementRetryer).onConflict(eq("settle2Virtual"), anyList(), eq(0), eq(0L), any(OptimisticLockingFailureException.class));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(settlementService, never()).settleWithRowLocks(any(), any(), anyString(), anyInt());
+    }
+}
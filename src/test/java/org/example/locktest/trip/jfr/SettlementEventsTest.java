@@ -0,0 +1,104 @@
+package org.example.locktest.trip.jfr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.locktest.trip.SettlementMetrics;
+import org.example.locktest.trip.SettlementRetryProperties;
+import org.example.locktest.trip.SettlementRetryer;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementEventsTest {
+
+    @Test
+    void bundledProfileEnablesSettlementEvents() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                Objects.requireNonNull(getClass().getResourceAsStream("/jfr/settlement.jfc")), StandardCharsets.UTF_8)) {
+            Configuration configuration = Configuration.create(reader);
+            assertEquals("true", configuration.getSettings().get("org.example.locktest.SettlementAttempt#enabled"));
+            assertEquals("true", configuration.getSettings().get("org.example.locktest.AccountLock#enabled"));
+            assertEquals("true", configuration.getSettings().get("org.example.locktest.OptimisticConflict#enabled"));
+            assertEquals("true", configuration.getSettings().get("org.example.locktest.RetryBackoff#enabled"));
+        }
+    }
+
+    @Test
+    void attemptsAndBackoffsAreRecorded() throws Exception {
+        SettlementRetryProperties properties = new SettlementRetryProperties();
+        properties.setBaseDelayMs(1);
+        properties.setMaxDelayMs(5);
+        SettlementRetryer retryer = new SettlementRetryer(properties, new SettlementMetrics(new SimpleMeterRegistry()));
+
+        Path file = Files.createTempFile("settlement", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SettlementAttemptEvent.class);
+            recording.enable(RetryBackoffEvent.class);
+            recording.start();
+            retryer.execute("settle", List.of("account:7", "expense:3"), PessimisticLockingFailureException.class,
+                    retryCount -> SettlementEvents.attempt("settle", 3L, 7L, 1L, retryCount, () -> {
+                        if (retryCount == 0) {
+                            throw new PessimisticLockingFailureException("lock wait timeout");
+                        }
+                        return true;
+                    }));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+        List<RecordedEvent> attempts = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.example.locktest.SettlementAttempt")).toList();
+        List<RecordedEvent> backoffs = events.stream()
+                .filter(e -> e.getEventType().getName().equals("org.example.locktest.RetryBackoff")).toList();
+
+        assertEquals(2, attempts.size());
+        assertEquals("lock_failure", attempts.get(0).getString("outcome"));
+        assertEquals("success", attempts.get(1).getString("outcome"));
+        assertEquals(1, attempts.get(1).getInt("attempt"));
+        assertEquals(1, backoffs.size());
+        assertEquals(3, backoffs.get(0).getLong("expenseId"));
+        assertEquals(7, backoffs.get(0).getLong("senderId"));
+    }
+
+    @Test
+    void lazyReceiverIsResolvedOnlyWhileRecording() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        Supplier<Long> receiver = () -> {
+            lookups.incrementAndGet();
+            return 9L;
+        };
+
+        SettlementEvents.attempt("settle2", 3L, 7L, receiver, 0, () -> true);
+        assertEquals(0, lookups.get());
+
+        Path file = Files.createTempFile("settlement", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(SettlementAttemptEvent.class);
+            recording.start();
+            SettlementEvents.attempt("settle2", 3L, 7L, receiver, 0, () -> true);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.deleteIfExists(file);
+
+        assertEquals(1, lookups.get());
+        assertEquals(9, events.get(0).getLong("receiverId"));
+    }
+}
@@ -0,0 +1,73 @@
+-- H2(MODE=MySQL) 용 스키마. JMH 벤치마크와 임베디드 DB 테스트가 함께 쓴다.
+-- 운영 스키마와 컬럼을 맞추고, 이후 변경은 db/migration 의 SQL 과 같이 반영한다.
+CREATE TABLE IF NOT EXISTS ACCOUNT
+(
+    account_id       BIGINT AUTO_INCREMENT PRIMARY KEY,
+    member_id        BIGINT         NOT NULL,
+    name             VARCHAR(50),
+    account_number   VARCHAR(50)    NOT NULL,
+    account_password VARCHAR(100),
+    bank_name        VARCHAR(20),
+    balance          DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    is_active        BOOLEAN                 DEFAULT TRUE,
+    version          INT                     DEFAULT 0,
+    created_at       DATETIME                DEFAULT CURRENT_TIMESTAMP,
+    updated_at       DATETIME                DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_account_member UNIQUE (member_id),
+    CONSTRAINT uk_account_number UNIQUE (account_number)
+);
+
+CREATE TABLE IF NOT EXISTS EXPENSE
+(
+    expense_id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    trip_id              BIGINT         NOT NULL,
+    member_id            BIGINT         NOT NULL,
+    expense_name         VARCHAR(100),
+    amount               DECIMAL(15, 2) NOT NULL,
+    location             VARCHAR(20),
+    settlement_completed BOOLEAN                 DEFAULT FALSE,
+    unpaid_count         INT            NOT NULL DEFAULT 0,
+    expense_date         DATETIME,
+    created_at           DATETIME                DEFAULT CURRENT_TIMESTAMP,
+    updated_at           DATETIME                DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS SETTLEMENT_NOTES
+(
+    settlement_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    expense_id    BIGINT         NOT NULL,
+    trip_id       BIGINT         NOT NULL,
+    member_id     BIGINT         NOT NULL,
+    share_amount  DECIMAL(15, 2) NOT NULL,
+    is_payed      BOOLEAN                 DEFAULT FALSE,
+    received      BOOLEAN                 DEFAULT FALSE,
+    created_at    DATETIME                DEFAULT CURRENT_TIMESTAMP,
+    updated_at    DATETIME                DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_settlement_notes_expense_member ON SETTLEMENT_NOTES (expense_id, member_id);
+CREATE INDEX IF NOT EXISTS idx_settlement_notes_member_trip ON SETTLEMENT_NOTES (member_id, trip_id);
+CREATE INDEX IF NOT EXISTS idx_settlement_notes_member_trip_created ON SETTLEMENT_NOTES (member_id, trip_id, created_at, settlement_id);
+CREATE INDEX IF NOT EXISTS idx_settlement_notes_trip_created ON SETTLEMENT_NOTES (trip_id, created_at, settlement_id);
+
+CREATE TABLE IF NOT EXISTS ACCOUNT_BALANCE_SHARD
+(
+    member_id  BIGINT         NOT NULL,
+    slot       INT            NOT NULL,
+    balance    DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    updated_at DATETIME       NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (member_id, slot)
+);
+
+CREATE TABLE IF NOT EXISTS ACCOUNT_LEDGER
+(
+    entry_id   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    member_id  BIGINT         NOT NULL,
+    expense_id BIGINT,
+    entry_type VARCHAR(10)    NOT NULL,
+    amount     DECIMAL(15, 2) NOT NULL,
+    compacted  BOOLEAN        NOT NULL DEFAULT FALSE,
+    created_at DATETIME       NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_account_ledger_tail ON ACCOUNT_LEDGER (member_id, compacted, entry_id);
+CREATE INDEX IF NOT EXISTS idx_account_ledger_pending ON ACCOUNT_LEDGER (compacted, member_id);